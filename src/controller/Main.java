@@ -1,8 +1,15 @@
 package controller;
 
+import java.nio.file.Paths;
 import java.util.Scanner;
 
+import model.api.AlphaVantageApiSource;
+import model.api.ApiSource;
+import model.api.LocalCsvDirectoryApiSource;
+import model.api.RequestScheduler;
+import model.api.SymbolDirectory;
 import model.service.StockService;
+import model.utilities.StockDataCache;
 import view.GUIViewU;
 import view.UnifiedViewInterface;
 import view.View;
@@ -12,6 +19,11 @@ import view.View;
  */
 public class Main {
 
+  /**
+   * The file the symbols validated by the API are kept in between runs.
+   */
+  private static final String SYMBOL_DIRECTORY_FILE = "symbols.csv";
+
   /**
    * Main method for the Portfolio Management System.
    *
@@ -41,8 +53,21 @@ public class Main {
         System.exit(1);
     }
 
+    // -Dportfolio.dataDir=<dir> replays stock data from local CSV files instead of the API
+    String dataDir = System.getProperty("portfolio.dataDir");
+    // -Dportfolio.requestsPerMinute and -Dportfolio.requestsPerDay set the API quotas of the key
+    ApiSource source = dataDir == null ? new AlphaVantageApiSource("FIR1DN0VB7SQ4SGD",
+        new RequestScheduler(
+            Integer.getInteger("portfolio.requestsPerMinute",
+                RequestScheduler.DEFAULT_REQUESTS_PER_MINUTE),
+            Integer.getInteger("portfolio.requestsPerDay",
+                RequestScheduler.DEFAULT_REQUESTS_PER_DAY)),
+        new SymbolDirectory(Paths.get(SYMBOL_DIRECTORY_FILE)))
+        : new LocalCsvDirectoryApiSource(dataDir);
+    // -Dportfolio.cacheBars=<n> bounds the number of daily bars kept in memory
+    long cacheBars = Long.getLong("portfolio.cacheBars", StockDataCache.DEFAULT_MAX_BARS);
     PortfolioControllerInterface portfolioController = new PortfolioController(
-        new StockService("FIR1DN0VB7SQ4SGD"));
+        new StockService(source, new StockDataCache(cacheBars)));
     PortfolioMenuControllerInterface controller = new PortfolioMenuController(portfolioController,
         view);
   }
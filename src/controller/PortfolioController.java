@@ -70,6 +70,17 @@ public class PortfolioController implements PortfolioControllerInterface {
     }
   }
 
+  /**
+   * Checks whether the given symbol is a valid stock symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return A Payload object with true if the symbol is valid, or an error message if it is not
+   *         or could not be checked.
+   */
+  public Payload validateSymbol(String symbol) {
+    return stockServiceInterface.validateSymbol(symbol);
+  }
+
   /**
    * Calculates the value of the portfolio with the given name on the given date.
    *
@@ -33,6 +33,15 @@ public interface PortfolioControllerInterface {
   Payload addStockToPortfolio(PortfolioInterface portfolio, String symbol, int quantity,
       LocalDate date);
 
+  /**
+   * Checks whether the given symbol is a valid stock symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return A Payload object with true if the symbol is valid, or an error message if it is not
+   *         or could not be checked.
+   */
+  Payload validateSymbol(String symbol);
+
   /**
    * Calculates the value of the portfolio with the given name on the given date.
    *
@@ -1,5 +1,6 @@
 package controller;
 
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
@@ -25,6 +26,10 @@ import view.UnifiedViewInterface;
  */
 public class PortfolioMenuController implements PortfolioMenuControllerInterface {
 
+  private static final String STOCK_CACHE_FILE = "cache.dat";
+
+  private static final String LEGACY_STOCK_CACHE_FILE = "cache.csv";
+
   private final PortfolioControllerInterface portfolioController;
 
   private final PortfolioServiceInterface portfolioService;
@@ -742,6 +747,9 @@ public class PortfolioMenuController implements PortfolioMenuControllerInterface
         flag = false;
         continue;
       }
+      if (this.printIfError(portfolioController.validateSymbol(symbol))) {
+        continue;
+      }
 
       int quantity = 0;
       while (quantity <= 0) {
@@ -811,6 +819,13 @@ public class PortfolioMenuController implements PortfolioMenuControllerInterface
       return;
     }
 
+    // Reject an invalid symbol before asking for the rest
+    Payload validation = portfolioController.validateSymbol(symbol);
+    if (validation.isError()) {
+      view.displayMessage(validation.getMessage());
+      return;
+    }
+
     // Request quantity
     int quantity = 0;
     while (quantity <= 0) {
@@ -1100,7 +1115,7 @@ public class PortfolioMenuController implements PortfolioMenuControllerInterface
    */
   public void saveStockCache() {
     try {
-      String filePath = "cache.csv";
+      String filePath = STOCK_CACHE_FILE;
       Payload payload = portfolioController.saveCache(filePath);
       if (payload.isError()) {
         this.view.displayMessage("Error: " + payload.getMessage());
@@ -1118,7 +1133,11 @@ public class PortfolioMenuController implements PortfolioMenuControllerInterface
    */
   public void loadStockCache() {
     try {
-      String filePath = "cache.csv";
+      String filePath = STOCK_CACHE_FILE;
+      if (!new File(filePath).exists() && new File(LEGACY_STOCK_CACHE_FILE).exists()) {
+        // import the CSV cache of older versions, the next save writes the binary file
+        filePath = LEGACY_STOCK_CACHE_FILE;
+      }
       Payload payload = portfolioController.loadCache(filePath);
       if (Objects.nonNull(payload) && payload.isError()) {
         return;
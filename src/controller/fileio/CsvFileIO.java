@@ -5,20 +5,26 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import model.Portfolio;
 import model.PortfolioInterface;
+import model.Stock;
 import model.Tradable;
 import model.transactions.TranactionInfo;
+import model.transactions.Transaction;
+import model.utilities.Quantity;
 
 /**
- * Class to read and write to a CSV file.
+ * Class to read and write to a CSV file. Every transaction is one row, written in the order it was
+ * made, so reading a file back replays the trades of a day in the same order and keeps fractional
+ * quantities exact.
  */
 public class CsvFileIO implements FileIO {
 
@@ -38,22 +44,34 @@ public class CsvFileIO implements FileIO {
     List<PortfolioInterface> loadedPortfolios;
     try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath))) {
       reader.readLine(); // Skip header
-      Map<String, Portfolio> portfolioMap = new HashMap<>();
+      Map<String, Map<String, Stock>> portfolioMap = new LinkedHashMap<>();
       reader.lines().forEach(line -> {
         String[] data = line.split(",");
-        Portfolio portfolio = portfolioMap.computeIfAbsent(data[0], Portfolio::new);
+        Map<String, Stock> stocks = portfolioMap.computeIfAbsent(data[0],
+            name -> new LinkedHashMap<>());
         if (!type.equals(data[5])) {
           throw new IllegalArgumentException("Invalid Portfolio Type");
         }
-        if (Float.parseFloat(data[2]) < 0) {
-          portfolio.sellStock(data[1], (int) Float.parseFloat(data[2]) * -1,
-              LocalDate.parse(data[4]), new BigDecimal(data[3]));
+        Quantity quantity = Quantity.of(new BigDecimal(data[2]), RoundingMode.HALF_EVEN);
+        BigDecimal price = new BigDecimal(data[3]);
+        LocalDate date = LocalDate.parse(data[4]);
+        Stock stock = stocks.get(data[1]);
+        if (quantity.signum() < 0) {
+          if (stock == null) {
+            throw new IllegalArgumentException("Stock not found");
+          }
+          stock.sell(quantity.negate(), date, price);
+        } else if (stock == null) {
+          stocks.put(data[1], new Stock(data[1], quantity, price, date));
         } else {
-          portfolio.addStock(data[1], (int) Float.parseFloat(data[2]), new BigDecimal(data[3]),
-              LocalDate.parse(data[4]));
+          stock.buy(quantity, date, price);
         }
       });
-      loadedPortfolios = new ArrayList<>(portfolioMap.values());
+      loadedPortfolios = new ArrayList<>();
+      for (Map.Entry<String, Map<String, Stock>> entry : portfolioMap.entrySet()) {
+        loadedPortfolios.add(new Portfolio(entry.getKey(),
+            new ArrayList<>(entry.getValue().values())));
+      }
     }
     return loadedPortfolios;
   }
@@ -75,13 +93,13 @@ public class CsvFileIO implements FileIO {
           "Portfolio Name,Stock Symbol,Quantity,Purchase Price,Purchase Date,Portfolio Type\n");
       for (PortfolioInterface portfolio : portfolios) {
         for (Tradable stock : portfolio.getStocks()) {
-          for (Map.Entry<LocalDate, TranactionInfo> entry : stock.getActivityLog().entrySet()) {
-            LocalDate date = entry.getKey();
-            TranactionInfo info = entry.getValue();
+          for (Transaction transaction : stock.getTransactions()) {
+            LocalDate date = transaction.getDate();
+            TranactionInfo info = transaction.getInfo();
             BigDecimal price = info.getPrice();
-            Float quantity = info.getQuantity();
+            Quantity quantity = info.getExactQuantity();
             writer.append(String.join(",", portfolio.getName(), stock.getSymbol(),
-                String.valueOf(quantity), price.toString(), date.toString(), type));
+                quantity.toString(), price.toString(), date.toString(), type));
             writer.append("\n");
           }
 
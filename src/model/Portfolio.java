@@ -1,11 +1,17 @@
 package model;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import model.service.StockServiceInterface;
+import model.utilities.DateUtils;
+import model.utilities.Money;
+import model.utilities.Quantity;
 
 /**
  * Class to represent a portfolio of stocks.
@@ -13,7 +19,10 @@ import model.service.StockServiceInterface;
 public class Portfolio implements PortfolioInterface {
 
   private final String name;
-  private List<Tradable> stocks = new ArrayList<>();
+  private final List<Tradable> stocks = new ArrayList<>();
+  // the holding of each symbol, so trades find it without a pass over the stocks
+  private final Map<String, Tradable> stocksBySymbol = new HashMap<>();
+  private final List<Tradable> stocksView = Collections.unmodifiableList(stocks);
 
   /**
    * Constructor for the Portfolio class.
@@ -32,7 +41,11 @@ public class Portfolio implements PortfolioInterface {
    */
   public Portfolio(String name, List<Stock> initialStocks) {
     this.name = name;
-    this.stocks = new ArrayList<>(initialStocks);
+    for (Stock stock : initialStocks) {
+      this.stocks.add(stock);
+      // a symbol listed twice is found at its first holding
+      this.stocksBySymbol.putIfAbsent(stock.getSymbol(), stock);
+    }
   }
 
   /**
@@ -46,9 +59,12 @@ public class Portfolio implements PortfolioInterface {
   public void addStock(String symbol, int quantity, BigDecimal purchasePrice,
       LocalDate purchaseDate) {
     // check if the stock is already in the portfolio - > s.buy else new Stock
-    this.stocks.stream().filter(s -> s.getSymbol().equals(symbol)).findFirst()
-        .ifPresentOrElse(s -> s.buy(quantity, purchaseDate, purchasePrice),
-            () -> this.stocks.add(new Stock(symbol, quantity, purchasePrice, purchaseDate)));
+    Tradable stock = this.stocksBySymbol.get(symbol);
+    if (stock != null) {
+      stock.buy(quantity, purchaseDate, purchasePrice);
+    } else {
+      addHolding(new Stock(symbol, quantity, purchasePrice, purchaseDate));
+    }
   }
 
   /**
@@ -61,33 +77,68 @@ public class Portfolio implements PortfolioInterface {
    */
   public void investUsingWeights(Float investmentAmount, LocalDate date,
       StockServiceInterface stockService, Map<String, Float> stockWeights) {
+    investUsingWeights(Money.of(new BigDecimal(Float.toString(investmentAmount)),
+        RoundingMode.HALF_EVEN), List.of(date), stockService, stockWeights);
+  }
+
+  /**
+   * Invest an exact amount in the portfolio using weights on each of several dates. Each stock
+   * gets its weight of the amount, rounded half even to a hundredth of a cent, and buys as much as
+   * that pays for, rounded down to a millionth of a share. The prices of all the stocks on all the
+   * dates are fetched in one batch before the first purchase.
+   *
+   * @param investmentAmount The amount to invest on each date.
+   * @param dates            The dates of the investments, in ascending order.
+   * @param stockService     The stock service to use.
+   * @param stockWeights     A map of stock symbols to their respective weights.
+   */
+  private void investUsingWeights(Money investmentAmount, List<LocalDate> dates,
+      StockServiceInterface stockService, Map<String, Float> stockWeights) {
     // check if the investment amount is positive
-    if (investmentAmount <= 0) {
+    if (investmentAmount.signum() <= 0) {
       throw new IllegalArgumentException("Invalid investment amount");
     }
     // check if the date is in the future
-    if (date.isAfter(LocalDate.now())) {
+    if (!dates.isEmpty() && dates.get(dates.size() - 1).isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("Cannot invest in the future");
     }
     // check if the stock weights sum to 100
     if (stockWeights.values().stream().mapToDouble(Float::doubleValue).sum() != 100) {
       throw new IllegalArgumentException("Invalid stock weights");
     }
-    for (Map.Entry<String, Float> entry : stockWeights.entrySet()) {
-      String symbol = entry.getKey();
-      Float weight = entry.getValue();
-      BigDecimal stockInvestment = new BigDecimal(investmentAmount * (weight / 100));
-      float quantity =
-          stockInvestment.floatValue() / ((BigDecimal) stockService.fetchLastClosePrice(
-              symbol, date).getData()).floatValue();
-      // check if the stock is already in the portfolio - > s.buy else new Stock\
-      // if not create a new stock
-      this.stocks.stream().filter(s -> s.getSymbol().equals(symbol)).findFirst()
-          .ifPresentOrElse(s -> s.buy(quantity, date, (BigDecimal) stockService
-                  .fetchLastClosePrice(symbol, date).getData()),
-              () -> this.stocks.add(new Stock(symbol, quantity,
-                  (BigDecimal) stockService.fetchLastClosePrice(symbol, date).getData(), date)));
+    if (dates.isEmpty()) {
+      return;
+    }
 
+    // the share of the amount of each stock is the same on every date
+    long hundredPercent = Quantity.of(100).getUnits();
+    List<String> symbols = new ArrayList<>(stockWeights.keySet());
+    List<Money> stockInvestments = new ArrayList<>(symbols.size());
+    for (String symbol : symbols) {
+      stockInvestments.add(investmentAmount.fraction(
+          Quantity.of(stockWeights.get(symbol)).getUnits(), hundredPercent,
+          RoundingMode.HALF_EVEN));
+    }
+    Map<String, List<BigDecimal>> prices = stockService.fetchLastClosePrices(symbols, dates);
+
+    for (int i = 0; i < dates.size(); i++) {
+      LocalDate date = dates.get(i);
+      for (int j = 0; j < symbols.size(); j++) {
+        String symbol = symbols.get(j);
+        BigDecimal price = prices.get(symbol).get(i);
+        if (price == null || price.signum() <= 0) {
+          throw new IllegalArgumentException("No price for " + symbol + " on " + date);
+        }
+        Quantity quantity = stockInvestments.get(j).divide(Money.of(price), RoundingMode.DOWN);
+        // check if the stock is already in the portfolio - > s.buy else new Stock\
+        // if not create a new stock
+        Tradable stock = this.stocksBySymbol.get(symbol);
+        if (stock != null) {
+          stock.buy(quantity, date, price);
+        } else {
+          addHolding(new Stock(symbol, quantity, price, date));
+        }
+      }
     }
   }
 
@@ -104,34 +155,11 @@ public class Portfolio implements PortfolioInterface {
   public void dollarCostAveraging(BigDecimal amount, LocalDate startDate, LocalDate endDate,
       StockServiceInterface stockService, int frequency, Map<String, Float> stockWeights) {
 
-    // start date should be before end date and start date should be before today
-    if (startDate.isAfter(endDate) || startDate.isAfter(LocalDate.now())) {
-      throw new IllegalArgumentException("Invalid start date");
-    }
-
-    // frequency should be between 1 and 4
-    if (frequency < 1 || frequency > 4) {
-      throw new IllegalArgumentException("Invalid frequency");
-    }
-
-    // end date should be before today
-    if (endDate.isAfter(LocalDate.now())) {
-      throw new IllegalArgumentException("Invalid end date");
-    }
-
     // frequency 1 for daily, 2 for weekly, 3 for monthly, 4 for yearly
-    LocalDate date = startDate;
-    while (date.isBefore(endDate)) {
-      this.investUsingWeights(amount.floatValue(), date, stockService, stockWeights);
-      if (frequency == 1) {
-        date = date.plusDays(1);
-      } else if (frequency == 2) {
-        date = date.plusWeeks(1);
-      } else if (frequency == 3) {
-        date = date.plusMonths(1);
-      } else {
-        date = date.plusYears(1);
-      }
+    List<LocalDate> dates = DateUtils.getInvestmentDates(startDate, endDate, frequency);
+    if (!dates.isEmpty()) {
+      this.investUsingWeights(Money.of(amount, RoundingMode.HALF_EVEN), dates, stockService,
+          stockWeights);
     }
   }
 
@@ -151,20 +179,15 @@ public class Portfolio implements PortfolioInterface {
       throw new IllegalArgumentException("Cannot sell stock in the future");
     }
 
-    // stream through the stocks in the portfolio and find the stock to sell
-    this.getStocks().stream()
-        .filter(s -> s.getSymbol().equals(stock))
-        .findFirst()
-        .ifPresentOrElse(
-            s -> {
-              if (s.getQuantity() < quantity) {
-                throw new IllegalArgumentException("Not enough stock to sell");
-              }
-              s.sell(quantity, date, sellingPrice);
-            },
-            () -> {
-              throw new IllegalArgumentException("Stock not found");
-            });
+    // find the stock to sell
+    Tradable holding = this.stocksBySymbol.get(stock);
+    if (holding == null) {
+      throw new IllegalArgumentException("Stock not found");
+    }
+    if (holding.getQuantity() < quantity) {
+      throw new IllegalArgumentException("Not enough stock to sell");
+    }
+    holding.sell(quantity, date, sellingPrice);
   }
 
 
@@ -196,12 +219,12 @@ public class Portfolio implements PortfolioInterface {
   }
 
   /**
-   * Adds a stock to the portfolio.
+   * Getter for the stocks in the portfolio.
    *
-   * @return The stocks in the portfolio.
+   * @return A read-only view of the stocks in the portfolio, in the order they were added.
    */
   public List<Tradable> getStocks() {
-    return new ArrayList<>(stocks); // Return a copy to protect internal list
+    return stocksView;
   }
 
   /**
@@ -221,8 +244,18 @@ public class Portfolio implements PortfolioInterface {
    * @return The quantity of the stock.
    */
   public float getStockQuantity(String symbol, LocalDate date) {
-    return this.stocks.stream().filter(s -> s.getSymbol().equals(symbol)).findFirst()
-        .map(s -> s.getQuantity(date)).orElse(0.0f);
+    Tradable stock = this.stocksBySymbol.get(symbol);
+    return stock == null ? 0.0f : stock.getQuantity(date);
+  }
+
+  /**
+   * Adds a stock of a symbol not yet in the portfolio.
+   *
+   * @param stock The stock to add.
+   */
+  private void addHolding(Tradable stock) {
+    this.stocks.add(stock);
+    this.stocksBySymbol.put(stock.getSymbol(), stock);
   }
 
   /**
@@ -231,9 +264,9 @@ public class Portfolio implements PortfolioInterface {
   public List<Tradable> getPortfolio(LocalDate date) {
     List<Tradable> portfolioDetails = new ArrayList<>();
     for (Tradable stock : this.stocks) {
-      if (stock.getQuantity(date) > 0) {
-        portfolioDetails.add(new Stock(stock.getSymbol(), stock.getQuantity(date),
-            null, null));
+      Quantity quantity = stock.getExactQuantity(date);
+      if (quantity.signum() > 0) {
+        portfolioDetails.add(new Stock(stock.getSymbol(), quantity, null, date));
       }
     }
     return portfolioDetails;
@@ -24,7 +24,7 @@ public interface PortfolioInterface {
   /**
    * getter for the stocks in the portfolio.
    *
-   * @return The stocks in the portfolio.
+   * @return A read-only view of the stocks in the portfolio.
    */
   List<Tradable> getStocks();
 
@@ -1,22 +1,32 @@
 package model;
 
+import controller.Payload;
 import model.transactions.PurchangeInfo;
 import model.transactions.SaleInfo;
 import model.transactions.TranactionInfo;
+import model.transactions.Transaction;
+import model.transactions.TransactionLedger;
+import model.utilities.Money;
+import model.utilities.Quantity;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import model.service.StockServiceInterface;
 
 /**
- * Class to represent a stock in a portfolio.
+ * Class to represent a stock in a portfolio. Quantities and amounts are kept as fixed-point
+ * {@link Quantity} and {@link Money} values, so sums over the activity log are exact and every
+ * product is rounded once, half even, to the scale of a price. The activity log is a
+ * {@link TransactionLedger}, which answers the position and the investment as of a date with a
+ * binary search.
  */
 public class Stock implements Tradable {
 
   private final String symbol;
-  private float quantity;
-  private final Map<LocalDate, TranactionInfo> Activity = new HashMap<>();
+  private Quantity quantity;
+  private final TransactionLedger Activity = new TransactionLedger();
   private String string;
 
 
@@ -29,9 +39,22 @@ public class Stock implements Tradable {
    * @param purchaseDate  The date on which the stock was purchased.
    */
   public Stock(String symbol, float quantity, BigDecimal purchasePrice, LocalDate purchaseDate) {
+    this(symbol, Quantity.of(quantity), purchasePrice, purchaseDate);
+  }
+
+  /**
+   * Constructor for the Stock class with an exact quantity.
+   *
+   * @param symbol        The symbol of the stock.
+   * @param quantity      The quantity of the stock.
+   * @param purchasePrice The purchase price of the stock.
+   * @param purchaseDate  The date on which the stock was purchased.
+   */
+  public Stock(String symbol, Quantity quantity, BigDecimal purchasePrice,
+      LocalDate purchaseDate) {
     this.symbol = symbol;
     this.quantity = quantity;
-    this.Activity.put(purchaseDate, new PurchangeInfo(quantity, purchasePrice));
+    this.Activity.add(purchaseDate, new PurchangeInfo(quantity, purchasePrice));
   }
 
   /**
@@ -49,7 +72,7 @@ public class Stock implements Tradable {
    * @return The quantity of the stock.
    */
   public float getQuantity() {
-    return quantity;
+    return quantity.floatValue();
   }
 
   /**
@@ -59,15 +82,18 @@ public class Stock implements Tradable {
    * @return total quantity of the stock
    */
   public float getQuantity(LocalDate date) {
-    float totalQuantity = 0;
-
-    for (Map.Entry<LocalDate, TranactionInfo> entry : this.Activity.entrySet()) {
-      if (entry.getKey().isBefore(date) || entry.getKey().isEqual(date)) {
-        totalQuantity = totalQuantity + entry.getValue().getQuantity();
-      }
-    }
+    return getExactQuantity(date).floatValue();
+  }
 
-    return totalQuantity;
+  /**
+   * get total quantity of the stock on a given date using activity log, as an exact quantity.
+   *
+   * @param date date to calculate the quantity
+   * @return total quantity of the stock
+   */
+  public Quantity getExactQuantity(LocalDate date) {
+    // value of sale is already stored as negative quantity
+    return Quantity.ofUnits(this.Activity.quantityThrough(date));
   }
 
 
@@ -82,12 +108,26 @@ public class Stock implements Tradable {
     if (quantity < 0) {
       throw new IllegalArgumentException("Quantity cannot be negative");
     }
-    if (quantity > this.quantity) {
+    sell(Quantity.of(quantity), date, sellingPrice);
+  }
+
+  /**
+   * Updates the stock and add stock history, with an exact quantity.
+   *
+   * @param sold         The quantity sold.
+   * @param date         The date of the update.
+   * @param sellingPrice The price of the sale.
+   */
+  public void sell(Quantity sold, LocalDate date, BigDecimal sellingPrice) {
+    if (sold.signum() < 0) {
+      throw new IllegalArgumentException("Quantity cannot be negative");
+    }
+    if (sold.compareTo(this.quantity) > 0) {
       throw new IllegalArgumentException("Quantity cannot be greater than the current quantity");
     }
-    SaleInfo saleInfo = new SaleInfo(-quantity, sellingPrice);
-    this.Activity.put(date, saleInfo);
-    this.quantity = this.quantity - quantity;
+    SaleInfo saleInfo = new SaleInfo(sold.negate(), sellingPrice);
+    this.Activity.add(date, saleInfo);
+    this.quantity = this.quantity.minus(sold);
   }
 
   /**
@@ -102,9 +142,24 @@ public class Stock implements Tradable {
     if (quantity < 0) {
       throw new IllegalArgumentException("Quantity cannot be negative");
     }
-    this.quantity += quantity;
+    buy(Quantity.of(quantity), date, purchasePrice);
+  }
+
+  /**
+   * Buy extra stock and add stock history, with an exact quantity.
+   *
+   * @param quantity      quantity of the stock to buy
+   * @param date          date of the purchase
+   * @param purchasePrice price of the stock on the date
+   * @throws IllegalArgumentException if quantity is negative
+   */
+  public void buy(Quantity quantity, LocalDate date, BigDecimal purchasePrice) {
+    if (quantity.signum() < 0) {
+      throw new IllegalArgumentException("Quantity cannot be negative");
+    }
+    this.quantity = this.quantity.plus(quantity);
     PurchangeInfo purchaseInfo = new PurchangeInfo(quantity, purchasePrice);
-    this.Activity.put(date, purchaseInfo);
+    this.Activity.add(date, purchaseInfo);
   }
 
   /**
@@ -113,12 +168,7 @@ public class Stock implements Tradable {
    * @param date date to calculate the investment
    */
   public BigDecimal calculateInvestment(LocalDate date) {
-    return Activity.entrySet().stream()
-        .filter(entry -> entry.getKey().isBefore(date))
-        .map(entry -> entry.getValue().getPrice()
-            .multiply(BigDecimal.valueOf(entry.getValue().getQuantity())))
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+    return Money.ofUnits(this.Activity.costBefore(date)).toBigDecimal();
   }
 
   /**
@@ -126,31 +176,54 @@ public class Stock implements Tradable {
    *
    * @param stockService The stock service to use to fetch stock prices.
    * @param date         The date on which to calculate the value.
+   * @throws IllegalArgumentException if the price of the stock could not be loaded.
    */
   @Override
   public BigDecimal calculateValue(StockServiceInterface stockService, LocalDate date) {
     // calculate total purchase quantity before the date from the activity
-    BigDecimal totalQuantity = BigDecimal.ZERO;
-
-    for (Map.Entry<LocalDate, TranactionInfo> entry : this.Activity.entrySet()) {
-      if (entry.getKey().isBefore(date) || entry.getKey().isEqual(date)) {
-        // value of sale is  already stored as negative quantity
-        totalQuantity = totalQuantity.add(new BigDecimal(entry.getValue().getQuantity()));
-      }
-    }
+    Quantity totalQuantity = getExactQuantity(date);
 
     // calculate value of the stock on the date
-    return ((BigDecimal) stockService.fetchLastClosePrice(this.symbol, date).getData()).multiply(
-        totalQuantity);
+    Payload closePrice = stockService.fetchLastClosePrice(this.symbol, date);
+    if (closePrice.isError()) {
+      throw new IllegalArgumentException(closePrice.getMessage());
+    }
+    BigDecimal fetchedPrice = (BigDecimal) closePrice.getData();
+    BigDecimal value = Money.of(fetchedPrice).times(totalQuantity, RoundingMode.HALF_EVEN)
+        .toBigDecimal();
+    // keep the scale of the price, as a whole number of shares always has, unless the value of a
+    // fraction of a share needs more decimal places
+    return value.setScale(Math.max(fetchedPrice.scale(), value.stripTrailingZeros().scale()));
   }
 
   /**
-   * getter for activity in the stock.
+   * getter for activity in the stock. Several transactions on one date are shown as their net
+   * quantity. The map is an unmodifiable snapshot, so changing the activity goes through
+   * {@link #buy} and {@link #sell}.
    *
-   * @return activity log of the stock
+   * @return activity log of the stock, in date order
    */
   public Map<LocalDate, TranactionInfo> getActivityLog() {
-    return this.Activity;
+    return this.Activity.asMap();
+  }
+
+  /**
+   * getter for the date of the first transaction in the stock.
+   *
+   * @return date of the first transaction, or null if there is none
+   */
+  @Override
+  public LocalDate getFirstTransactionDate() {
+    return this.Activity.getFirstDate();
+  }
+
+  /**
+   * getter for every transaction in the stock, several on one date included.
+   *
+   * @return transactions of the stock, in date order and in the order they were made
+   */
+  public List<Transaction> getTransactions() {
+    return this.Activity.getTransactions();
   }
 
   /**
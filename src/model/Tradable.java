@@ -2,10 +2,13 @@ package model;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 import model.service.StockServiceInterface;
 import model.transactions.TranactionInfo;
+import model.transactions.Transaction;
+import model.utilities.Quantity;
 
 /**
  * Interface for the Tradable class.
@@ -34,6 +37,14 @@ public interface Tradable {
    */
   float getQuantity(LocalDate date);
 
+  /**
+   * gets quantity of the tradable asset on a given date, as an exact quantity.
+   *
+   * @param date The date to get the quantity for.
+   * @return The quantity of the tradable asset on the given date.
+   */
+  Quantity getExactQuantity(LocalDate date);
+
 
   /**
    * Updates the quantity of the tradable asset.
@@ -44,6 +55,15 @@ public interface Tradable {
    */
   void sell(float quantity, LocalDate date, BigDecimal sellingPrice);
 
+  /**
+   * Updates the quantity of the tradable asset, with an exact quantity.
+   *
+   * @param quantity     The quantity sold.
+   * @param date         The date of the update.
+   * @param sellingPrice The price of the sale.
+   */
+  void sell(Quantity quantity, LocalDate date, BigDecimal sellingPrice);
+
   /**
    * Buy more of the tradable asset.
    *
@@ -53,6 +73,15 @@ public interface Tradable {
    */
   void buy(float quantity, LocalDate date, BigDecimal purchasePrice);
 
+  /**
+   * Buy more of the tradable asset, with an exact quantity.
+   *
+   * @param quantity      The quantity to buy.
+   * @param date          The date of the purchase.
+   * @param purchasePrice The price of the purchase.
+   */
+  void buy(Quantity quantity, LocalDate date, BigDecimal purchasePrice);
+
   /**
    * Calculate Money Invested in the tradable asset.
    *
@@ -72,12 +101,27 @@ public interface Tradable {
   BigDecimal calculateValue(StockServiceInterface stockService, LocalDate date);
 
   /**
-   * Getter for activity of the tradable asset.
+   * Getter for activity of the tradable asset. The map is a snapshot that cannot be modified,
+   * transactions are made through {@link #buy} and {@link #sell}.
    *
    * @return The activity log of the tradable asset.
    */
   Map<LocalDate, TranactionInfo> getActivityLog();
 
+  /**
+   * Getter for the date of the first transaction of the tradable asset.
+   *
+   * @return The date of the first transaction, or null if there is none.
+   */
+  LocalDate getFirstTransactionDate();
+
+  /**
+   * Getter for every transaction of the tradable asset, several on one date included.
+   *
+   * @return The transactions in date order and in the order they were made.
+   */
+  List<Transaction> getTransactions();
+
   /**
    * to string method for the tradable asset.
    */
@@ -0,0 +1,74 @@
+package model.analysis;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.utilities.PriceSeries;
+
+/**
+ * Scanner for the days on which the closing price of a stock crosses above its simple moving
+ * average. The scan walks the trading days of the cached price series once and keeps the moving
+ * average window as a running fixed-point sum.
+ */
+public class CrossoverScanner {
+
+  /**
+   * The number of trading days in the moving average when none is given.
+   */
+  public static final int DEFAULT_WINDOW = 30;
+
+  private final int window;
+
+  /**
+   * Constructor for the CrossoverScanner class.
+   *
+   * @param window The number of trading days in the moving average.
+   * @throws IllegalArgumentException if the window is not positive.
+   */
+  public CrossoverScanner(int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("Moving average window should be greater than 0");
+    }
+    this.window = window;
+  }
+
+  /**
+   * Finds the trading days in the given range on which the closing price rose above the moving
+   * average, that is the previous close was below the previous day's average and the close is
+   * above the day's average. Days without a full window of history before them are skipped.
+   *
+   * @param series    The price series of the stock.
+   * @param startDate The start date of the range.
+   * @param endDate   The end date of the range.
+   * @return The crossover days in date order.
+   */
+  public List<LocalDate> scan(PriceSeries series, LocalDate startDate, LocalDate endDate) {
+    List<LocalDate> crossoverDays = new ArrayList<>();
+    if (series == null) {
+      return crossoverDays;
+    }
+    int from = Math.max(series.lowerBound((int) startDate.toEpochDay()), window);
+    int to = series.upperBound((int) endDate.toEpochDay());
+    if (from >= to) {
+      return crossoverDays;
+    }
+
+    // sum of the window ending on the day before the first day checked
+    long previousSum = 0;
+    for (int i = from - window; i < from; i++) {
+      previousSum += series.closeAt(i);
+    }
+    for (int i = from; i < to; i++) {
+      long sum = previousSum + series.closeAt(i) - series.closeAt(i - window);
+      // compare close with sum / window without dividing
+      boolean wasBelow = series.closeAt(i - 1) * window < previousSum;
+      boolean isAbove = series.closeAt(i) * window > sum;
+      if (wasBelow && isAbove) {
+        crossoverDays.add(LocalDate.ofEpochDay(series.epochDayAt(i)));
+      }
+      previousSum = sum;
+    }
+    return crossoverDays;
+  }
+}
@@ -0,0 +1,138 @@
+package model.analysis;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+import model.utilities.Quantity;
+
+/**
+ * The outcome of backtesting a {@link DcaStrategy}: the positions it ends with, the money it put
+ * in, and the value of its holdings over the period, or the reason a portfolio would have
+ * rejected it.
+ */
+public class DcaBacktest {
+
+  /**
+   * Number of decimal places of the return.
+   */
+  public static final int RETURN_SCALE = 6;
+
+  private final DcaStrategy strategy;
+  private final Map<String, Quantity> positions;
+  private final BigDecimal investment;
+  private final SortedMap<LocalDate, BigDecimal> navCurve;
+  private final String failure;
+
+  /**
+   * Constructor for the DcaBacktest class.
+   *
+   * @param strategy   The strategy that was backtested.
+   * @param positions  The quantity of each stock at the end of the period.
+   * @param investment The money paid for the stocks.
+   * @param navCurve   The value of the holdings on each investment date and on the end date.
+   */
+  public DcaBacktest(DcaStrategy strategy, Map<String, Quantity> positions, BigDecimal investment,
+      SortedMap<LocalDate, BigDecimal> navCurve) {
+    this.strategy = strategy;
+    this.positions = Collections.unmodifiableMap(positions);
+    this.investment = investment;
+    this.navCurve = Collections.unmodifiableSortedMap(navCurve);
+    this.failure = "";
+  }
+
+  /**
+   * Constructor for the DcaBacktest class, for a strategy that could not be backtested. It has no
+   * positions, no investment and no values.
+   *
+   * @param strategy The strategy that was backtested.
+   * @param failure  The message of the error a portfolio would have failed with.
+   */
+  public DcaBacktest(DcaStrategy strategy, String failure) {
+    this.strategy = strategy;
+    this.positions = Collections.emptyMap();
+    this.investment = BigDecimal.ZERO;
+    this.navCurve = Collections.emptySortedMap();
+    this.failure = failure;
+  }
+
+  /**
+   * Getter for the strategy that was backtested.
+   *
+   * @return The strategy.
+   */
+  public DcaStrategy getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * Getter for the quantity of each stock at the end of the period.
+   *
+   * @return An unmodifiable map of stock symbols to their quantities.
+   */
+  public Map<String, Quantity> getPositions() {
+    return positions;
+  }
+
+  /**
+   * Getter for the money paid for the stocks over the period.
+   *
+   * @return The investment, with four decimal places.
+   */
+  public BigDecimal getInvestment() {
+    return investment;
+  }
+
+  /**
+   * Getter for the value of the holdings on each investment date and on the end date.
+   *
+   * @return An unmodifiable sorted map of dates to values, with four decimal places.
+   */
+  public SortedMap<LocalDate, BigDecimal> getNavCurve() {
+    return navCurve;
+  }
+
+  /**
+   * Getter for the value of the holdings on the end date.
+   *
+   * @return The final value, with four decimal places.
+   */
+  public BigDecimal getFinalValue() {
+    return navCurve.isEmpty() ? BigDecimal.ZERO : navCurve.get(navCurve.lastKey());
+  }
+
+  /**
+   * Getter for the gain over the investment, as a fraction of the investment.
+   *
+   * @return The return, rounded half even to {@link #RETURN_SCALE} decimal places, or zero if
+   *         nothing was invested.
+   */
+  public BigDecimal getReturn() {
+    if (investment.signum() == 0) {
+      return BigDecimal.ZERO.setScale(RETURN_SCALE);
+    }
+    return getFinalValue().subtract(investment)
+        .divide(investment, RETURN_SCALE, RoundingMode.HALF_EVEN);
+  }
+
+  /**
+   * Getter for the reason the strategy could not be backtested.
+   *
+   * @return The error message, or an empty string if the backtest succeeded.
+   */
+  public String getFailure() {
+    return failure;
+  }
+
+  /**
+   * Checks whether the strategy could not be backtested.
+   *
+   * @return true if the backtest failed, false otherwise.
+   */
+  public boolean isFailed() {
+    return !failure.isEmpty();
+  }
+}
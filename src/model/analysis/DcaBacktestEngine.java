@@ -0,0 +1,165 @@
+package model.analysis;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import model.utilities.Money;
+import model.utilities.PriceSeries;
+import model.utilities.Quantity;
+
+/**
+ * Backtest engine for dollar cost averaging strategies. A run simulates the purchases of a
+ * {@link DcaStrategy} on the cached price series without touching any portfolio. Each stock's
+ * closes on the investment dates are read in one forward pass over its series into a primitive
+ * array, and the quantities, the investment and the values are summed as fixed-point longs.
+ *
+ * <p>The purchases are the ones {@link model.Portfolio#dollarCostAveraging} would make: each stock
+ * gets its weight of the amount, rounded half even to a hundredth of a cent, and buys as much as
+ * that pays for at the last close, rounded down to a millionth of a share. Holdings are valued the
+ * way {@link NavEngine} values them. The engine only reads the series, so runs may go in
+ * parallel.
+ */
+public class DcaBacktestEngine {
+
+  private final Map<String, PriceSeries> seriesBySymbol;
+  private final int maxLookbackDays;
+
+  /**
+   * Constructor for the DcaBacktestEngine class.
+   *
+   * @param seriesBySymbol  The sorted price series of each stock the strategies may invest in.
+   * @param maxLookbackDays The number of days before a date a close is still used on.
+   */
+  public DcaBacktestEngine(Map<String, PriceSeries> seriesBySymbol, int maxLookbackDays) {
+    this.seriesBySymbol = seriesBySymbol;
+    this.maxLookbackDays = maxLookbackDays;
+  }
+
+  /**
+   * Backtests a strategy.
+   *
+   * @param strategy The strategy to backtest.
+   * @return The positions, investment and value curve of the strategy.
+   * @throws IllegalArgumentException if a stock has no price on an investment date, the first one
+   *                                  a portfolio would have failed on.
+   */
+  public DcaBacktest run(DcaStrategy strategy) {
+    List<LocalDate> investmentDates = strategy.getInvestmentDates();
+    int investments = investmentDates.size();
+    // the curve has each investment date and then the end date
+    int[] days = new int[investments + 1];
+    for (int i = 0; i < investments; i++) {
+      days[i] = (int) investmentDates.get(i).toEpochDay();
+    }
+    days[investments] = (int) strategy.getEndDate().toEpochDay();
+
+    Money amount = Money.of(strategy.getAmount(), RoundingMode.HALF_EVEN);
+    long hundredPercent = Quantity.of(100).getUnits();
+    long[] values = new long[days.length];
+    long investment = 0;
+    Map<String, Quantity> positions = new LinkedHashMap<>();
+    // the earliest purchase without a price, in the order a portfolio makes them
+    int failedAt = investments;
+    String failedSymbol = null;
+
+    for (Map.Entry<String, Float> entry : strategy.getStockWeights().entrySet()) {
+      String symbol = entry.getKey();
+      Money stockInvestment = amount.fraction(Quantity.of(entry.getValue()).getUnits(),
+          hundredPercent, RoundingMode.HALF_EVEN);
+      PriceSeries series = seriesBySymbol.get(symbol);
+      long[] closes = series == null ? new long[days.length]
+          : series.lastCloses(days, maxLookbackDays);
+      long quantity = 0;
+      for (int i = 0; i < days.length; i++) {
+        if (i < investments) {
+          if (closes[i] <= 0) {
+            if (i < failedAt) {
+              failedAt = i;
+              failedSymbol = symbol;
+            }
+            break;
+          }
+          Money price = Money.ofUnits(closes[i]);
+          Quantity bought = stockInvestment.divide(price, RoundingMode.DOWN);
+          quantity = Math.addExact(quantity, bought.getUnits());
+          investment = Math.addExact(investment,
+              price.times(bought, RoundingMode.HALF_EVEN).getUnits());
+        }
+        if (closes[i] > 0 && quantity != 0) {
+          values[i] = Math.addExact(values[i], Money.ofUnits(closes[i])
+              .times(Quantity.ofUnits(quantity), RoundingMode.HALF_EVEN).getUnits());
+        }
+      }
+      positions.put(symbol, Quantity.ofUnits(quantity));
+    }
+    if (failedSymbol != null) {
+      throw new IllegalArgumentException(
+          "No price for " + failedSymbol + " on " + investmentDates.get(failedAt));
+    }
+
+    SortedMap<LocalDate, BigDecimal> navCurve = new TreeMap<>();
+    for (int i = 0; i < days.length; i++) {
+      navCurve.put(LocalDate.ofEpochDay(days[i]), Money.ofUnits(values[i]).toBigDecimal());
+    }
+    return new DcaBacktest(strategy, positions, Money.ofUnits(investment).toBigDecimal(),
+        navCurve);
+  }
+
+  /**
+   * Backtests several strategies in parallel and ranks them. A strategy that cannot be backtested
+   * does not stop the others, it is reported with its failure.
+   *
+   * @param strategies The strategies to backtest.
+   * @param pool       The pool to run the backtests on.
+   * @return The backtests, the highest return first, then the failed ones. Strategies with the
+   *         same return, and failed strategies, keep their order.
+   */
+  public List<DcaBacktest> compare(Collection<DcaStrategy> strategies, ForkJoinPool pool) {
+    List<CompletableFuture<DcaBacktest>> runs = new ArrayList<>(strategies.size());
+    for (DcaStrategy strategy : strategies) {
+      runs.add(CompletableFuture.supplyAsync(() -> runOrFail(strategy), pool));
+    }
+    List<DcaBacktest> backtests = new ArrayList<>(runs.size());
+    try {
+      for (CompletableFuture<DcaBacktest> run : runs) {
+        backtests.add(run.join());
+      }
+    } catch (CompletionException e) {
+      // anything but a failed strategy is a bug, the remaining runs are not worth finishing
+      for (CompletableFuture<DcaBacktest> run : runs) {
+        run.cancel(false);
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    backtests.sort(Comparator.comparing(DcaBacktest::isFailed)
+        .thenComparing(DcaBacktest::getReturn, Comparator.reverseOrder()));
+    return backtests;
+  }
+
+  /**
+   * Backtests a strategy, turning the error a portfolio would have failed with into a failed
+   * backtest.
+   */
+  private DcaBacktest runOrFail(DcaStrategy strategy) {
+    try {
+      return run(strategy);
+    } catch (IllegalArgumentException | ArithmeticException e) {
+      return new DcaBacktest(strategy, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package model.analysis;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.utilities.DateUtils;
+
+/**
+ * A dollar cost averaging strategy to backtest: a fixed amount invested with fixed weights at a
+ * fixed frequency over a period, with the same rules as
+ * {@link model.Portfolio#dollarCostAveraging}.
+ */
+public class DcaStrategy {
+
+  private final String name;
+  private final BigDecimal amount;
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+  private final int frequency;
+  private final Map<String, Float> stockWeights;
+  private final List<LocalDate> investmentDates;
+
+  /**
+   * Constructor for the DcaStrategy class.
+   *
+   * @param name         The name of the strategy, to tell it apart in a comparison.
+   * @param amount       The amount to invest on each date.
+   * @param startDate    The date of the first investment.
+   * @param endDate      The end of the period, no investment is made on or after it.
+   * @param frequency    The frequency, 1 for daily, 2 for weekly, 3 for monthly, 4 for yearly.
+   * @param stockWeights A map of stock symbols to their respective weights, summing to 100.
+   * @throws IllegalArgumentException if the strategy is one a portfolio would reject.
+   */
+  public DcaStrategy(String name, BigDecimal amount, LocalDate startDate, LocalDate endDate,
+      int frequency, Map<String, Float> stockWeights) {
+    List<LocalDate> dates = DateUtils.getInvestmentDates(startDate, endDate, frequency);
+    if (amount.signum() <= 0) {
+      throw new IllegalArgumentException("Invalid investment amount");
+    }
+    if (stockWeights.values().stream().mapToDouble(Float::doubleValue).sum() != 100) {
+      throw new IllegalArgumentException("Invalid stock weights");
+    }
+    this.name = name;
+    this.amount = amount;
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.frequency = frequency;
+    this.stockWeights = Collections.unmodifiableMap(new LinkedHashMap<>(stockWeights));
+    this.investmentDates = Collections.unmodifiableList(dates);
+  }
+
+  /**
+   * Getter for the name of the strategy.
+   *
+   * @return The name of the strategy.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Getter for the amount invested on each date.
+   *
+   * @return The amount invested on each date.
+   */
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  /**
+   * Getter for the date of the first investment.
+   *
+   * @return The start date.
+   */
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Getter for the end of the period.
+   *
+   * @return The end date.
+   */
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Getter for the frequency of the investments.
+   *
+   * @return 1 for daily, 2 for weekly, 3 for monthly, 4 for yearly.
+   */
+  public int getFrequency() {
+    return frequency;
+  }
+
+  /**
+   * Getter for the weights of the stocks.
+   *
+   * @return An unmodifiable map of stock symbols to their weights, in the order given.
+   */
+  public Map<String, Float> getStockWeights() {
+    return stockWeights;
+  }
+
+  /**
+   * Getter for the dates of the investments.
+   *
+   * @return An unmodifiable list of the dates from the start date, stepping by the frequency,
+   *         before the end date.
+   */
+  public List<LocalDate> getInvestmentDates() {
+    return investmentDates;
+  }
+}
@@ -0,0 +1,143 @@
+package model.analysis;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.utilities.PriceSeries;
+
+/**
+ * Streaming moving average engine over the cached price series of a symbol. The averages are kept
+ * as running sums that slide forward one day at a time, so a scan costs one pass over the bars
+ * instead of re-reading every window. Prices are summed as fixed-point longs, so the averages are
+ * exact.
+ */
+public class MovingAverageEngine {
+
+  private final PriceSeries series;
+
+  /**
+   * Constructor for the MovingAverageEngine class.
+   *
+   * @param series The price series to compute the moving averages over.
+   */
+  public MovingAverageEngine(PriceSeries series) {
+    this.series = series;
+  }
+
+  /**
+   * Finds the days on which the short moving average crosses the long moving average. A moving
+   * average over a period of n days is the sum of the closing prices in the n calendar days ending
+   * on the day, divided by n, so days without a bar count as zero.
+   *
+   * @param startDate         The first day to check.
+   * @param endDate           The last day to check.
+   * @param shortMovingPeriod The number of days of the short moving average.
+   * @param longMovingPeriod  The number of days of the long moving average.
+   * @return The golden crosses, death crosses and all crossover days in the period.
+   */
+  public Crossovers findMovingCrossovers(LocalDate startDate, LocalDate endDate,
+      int shortMovingPeriod, int longMovingPeriod) {
+    int startDay = (int) startDate.toEpochDay();
+    int endDay = (int) endDate.toEpochDay();
+    Window shortWindow = new Window(shortMovingPeriod, startDay);
+    Window longWindow = new Window(longMovingPeriod, startDay);
+    Crossovers crossovers = new Crossovers();
+    boolean isAbove = false;
+
+    for (int day = startDay; day <= endDay; day++) {
+      shortWindow.moveTo(day);
+      longWindow.moveTo(day);
+      // compare shortSum / shortPeriod with longSum / longPeriod without dividing
+      long shortScaled = shortWindow.sum * longMovingPeriod;
+      long longScaled = longWindow.sum * shortMovingPeriod;
+
+      if (shortScaled > longScaled && !isAbove) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        crossovers.goldenCrosses.add(date);
+        crossovers.crossoverDays.add(date);
+        isAbove = true;
+      } else if (shortScaled < longScaled && isAbove) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        crossovers.deathCrosses.add(date);
+        crossovers.crossoverDays.add(date);
+        isAbove = false;
+      }
+    }
+    return crossovers;
+  }
+
+  /**
+   * A running sum of the closing prices in a window of calendar days.
+   */
+  private final class Window {
+
+    private final int period;
+    private int head;
+    private int tail;
+    private long sum;
+
+    private Window(int period, int firstDay) {
+      this.period = period;
+      this.head = series == null ? 0 : series.lowerBound(firstDay - period + 1);
+      this.tail = head;
+    }
+
+    /**
+     * Slides the window so that it ends on the given day.
+     *
+     * @param day The last day of the window as an epoch day.
+     */
+    private void moveTo(int day) {
+      if (series == null) {
+        return;
+      }
+      int size = series.size();
+      while (head < size && series.epochDayAt(head) <= day) {
+        sum += series.closeAt(head);
+        head++;
+      }
+      while (tail < head && series.epochDayAt(tail) <= day - period) {
+        sum -= series.closeAt(tail);
+        tail++;
+      }
+    }
+  }
+
+  /**
+   * Class to represent the crossover days found by a scan.
+   */
+  public static class Crossovers {
+
+    private final List<LocalDate> goldenCrosses = new ArrayList<>();
+    private final List<LocalDate> deathCrosses = new ArrayList<>();
+    private final List<LocalDate> crossoverDays = new ArrayList<>();
+
+    /**
+     * Getter for the days on which the short average rose above the long average.
+     *
+     * @return The golden crosses in date order.
+     */
+    public List<LocalDate> getGoldenCrosses() {
+      return goldenCrosses;
+    }
+
+    /**
+     * Getter for the days on which the short average fell below the long average.
+     *
+     * @return The death crosses in date order.
+     */
+    public List<LocalDate> getDeathCrosses() {
+      return deathCrosses;
+    }
+
+    /**
+     * Getter for all crossover days.
+     *
+     * @return The golden and death crosses in date order.
+     */
+    public List<LocalDate> getCrossoverDays() {
+      return crossoverDays;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package model.analysis;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import model.transactions.Transaction;
+import model.utilities.Money;
+import model.utilities.PriceSeries;
+import model.utilities.Quantity;
+
+/**
+ * Net asset value engine of a portfolio over a series of dates. Each holding's transactions and
+ * its price series are both sorted by date, so the engine reads the closes on all the dates in
+ * one forward pass over the bars and walks the transactions forward with the dates, keeping the
+ * quantity held as it goes. A time series of N dates over H
+ * holdings costs one pass over each holding's transactions and bars in the range, and N additions
+ * per holding, instead of a search of every log and cache per date.
+ *
+ * <p>A holding is valued the way {@link model.Stock} values it on a single date: the last close on
+ * or at most the look back before the date, zero when there is none, times the quantity held at
+ * the end of the date, rounded half even to a hundredth of a cent.
+ */
+public class NavEngine {
+
+  private final int maxLookbackDays;
+  private final List<Holding> holdings = new ArrayList<>();
+
+  /**
+   * Constructor for the NavEngine class.
+   *
+   * @param maxLookbackDays The number of days before a date a close is still used on.
+   */
+  public NavEngine(int maxLookbackDays) {
+    this.maxLookbackDays = maxLookbackDays;
+  }
+
+  /**
+   * Adds a holding to the portfolio.
+   *
+   * @param series       The price series of the holding, or null if it has no prices.
+   * @param transactions The transactions of the holding, in date order.
+   */
+  public void addHolding(PriceSeries series, List<Transaction> transactions) {
+    holdings.add(new Holding(series, transactions));
+  }
+
+  /**
+   * Values the portfolio on each of the given dates.
+   *
+   * @param dates The dates to value the portfolio on, in ascending order.
+   * @return A sorted map from each date to the value of the portfolio on it, with four decimal
+   *         places.
+   * @throws IllegalArgumentException if the dates are not in ascending order.
+   */
+  public SortedMap<LocalDate, BigDecimal> valuesOn(List<LocalDate> dates) {
+    int[] days = new int[dates.size()];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = (int) dates.get(i).toEpochDay();
+      if (i > 0 && days[i] <= days[i - 1]) {
+        throw new IllegalArgumentException("Dates must be in ascending order: " + dates.get(i));
+      }
+    }
+
+    long[] totals = new long[days.length];
+    for (Holding holding : holdings) {
+      holding.addValues(days, totals);
+    }
+
+    SortedMap<LocalDate, BigDecimal> values = new TreeMap<>();
+    for (int i = 0; i < days.length; i++) {
+      values.put(dates.get(i), Money.ofUnits(totals[i]).toBigDecimal());
+    }
+    return values;
+  }
+
+  /**
+   * A holding with its transactions and its price series.
+   */
+  private final class Holding {
+
+    private final PriceSeries series;
+    private final List<Transaction> transactions;
+
+    private Holding(PriceSeries series, List<Transaction> transactions) {
+      this.series = series;
+      this.transactions = transactions;
+    }
+
+    /**
+     * Adds the value of the holding on each day to the totals.
+     *
+     * @param days   The days, in ascending order.
+     * @param totals The value of the portfolio on each day so far, in ten-thousandths.
+     */
+    private void addValues(int[] days, long[] totals) {
+      long[] closes = series == null ? new long[days.length]
+          : series.lastCloses(days, maxLookbackDays);
+      int transaction = 0;
+      long quantity = 0;
+      for (int i = 0; i < days.length; i++) {
+        while (transaction < transactions.size()
+            && transactions.get(transaction).getDate().toEpochDay() <= days[i]) {
+          quantity = Math.addExact(quantity,
+              transactions.get(transaction).getInfo().getExactQuantity().getUnits());
+          transaction++;
+        }
+        if (quantity == 0 || closes[i] == 0) {
+          continue;
+        }
+        long value = Money.ofUnits(closes[i])
+            .times(Quantity.ofUnits(quantity), RoundingMode.HALF_EVEN).getUnits();
+        totals[i] = Math.addExact(totals[i], value);
+      }
+    }
+  }
+}
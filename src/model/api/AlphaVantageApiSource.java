@@ -1,53 +1,193 @@
 package model.api;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 /**
- * Class to represent an API source for the Alpha Vantage API.
+ * Class to represent an API source for the Alpha Vantage API. Requests go through a
+ * {@link RequestScheduler} that keeps them within the API quotas, and rate limit notices sent by
+ * the API are retried rather than taken for data. Requests are sent with a shared
+ * {@link HttpClient}, which keeps connections open between requests, negotiates HTTP/2 and asks
+ * for gzip compressed responses. What the API answers about a symbol is kept in a
+ * {@link SymbolDirectory}, so a symbol already known is validated without a request and one known
+ * to be invalid is not requested again.
  */
 public class AlphaVantageApiSource implements ApiSource {
 
+  /**
+   * The query endpoint of the Alpha Vantage API.
+   */
+  public static final URI DEFAULT_BASE_URI = URI.create("https://www.alphavantage.co/query");
+
+  /**
+   * How long to wait for a connection to the API by default.
+   */
+  public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+  /**
+   * How long to wait for the response to a request by default. A full daily series takes a while
+   * to be generated.
+   */
+  public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(60);
+
+  // the quotas belong to the key, so sources using the same key share a scheduler
+  private static final Map<String, RequestScheduler> SCHEDULERS = new ConcurrentHashMap<>();
+
+  private static final Map<Duration, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+  // the wording of the notices sent when the per minute quota is used up, the Note of the older
+  // plans and the burst notice of the current ones; a notice about the daily limit or a premium
+  // feature does not go away within the retries
+  private static final Pattern RATE_LIMIT_NOTICE = Pattern.compile(
+      "call frequency|calls? per minute|burst pattern|spreading out", Pattern.CASE_INSENSITIVE);
+
+  // the symbol of each entry in the bestMatches of a symbol search
+  private static final Pattern MATCHED_SYMBOL =
+      Pattern.compile("\"1\\. symbol\"\\s*:\\s*\"([^\"]*)\"");
+
+  /**
+   * Ends the responses that are not complete within the read timeout.
+   */
+  private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1,
+      runnable -> {
+        Thread thread = new Thread(runnable, "api-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  static {
+    WATCHDOG.setRemoveOnCancelPolicy(true);
+  }
 
   private final String apiKey;
 
+  private final RequestScheduler scheduler;
+
+  private final URI baseUri;
+
+  private final HttpClient client;
+
+  private final Duration readTimeout;
+
+  private final SymbolDirectory directory;
+
   /**
-   * Constructor for the AlphaVantageApiSource class.
+   * Constructor for the AlphaVantageApiSource class, with the quotas of the free plan.
    *
    * @param apiKey The API key to use for the requests.
    */
   public AlphaVantageApiSource(String apiKey) {
+    this(apiKey, SCHEDULERS.computeIfAbsent(apiKey, key -> new RequestScheduler()));
+  }
+
+  /**
+   * Constructor for the AlphaVantageApiSource class.
+   *
+   * @param apiKey    The API key to use for the requests.
+   * @param scheduler The scheduler to send the requests through.
+   */
+  public AlphaVantageApiSource(String apiKey, RequestScheduler scheduler) {
+    this(apiKey, scheduler, new SymbolDirectory());
+  }
+
+  /**
+   * Constructor for the AlphaVantageApiSource class that keeps what it learns about symbols in
+   * the given directory.
+   *
+   * @param apiKey    The API key to use for the requests.
+   * @param scheduler The scheduler to send the requests through.
+   * @param directory The directory of known valid and invalid symbols.
+   */
+  public AlphaVantageApiSource(String apiKey, RequestScheduler scheduler,
+      SymbolDirectory directory) {
+    this(apiKey, scheduler, DEFAULT_BASE_URI, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT,
+        directory);
+  }
+
+  /**
+   * Constructor for the AlphaVantageApiSource class that sends requests to the given endpoint.
+   *
+   * @param apiKey         The API key to use for the requests.
+   * @param scheduler      The scheduler to send the requests through.
+   * @param baseUri        The query endpoint of the API.
+   * @param connectTimeout How long to wait for a connection.
+   * @param readTimeout    How long to wait for the whole response to a request.
+   */
+  public AlphaVantageApiSource(String apiKey, RequestScheduler scheduler, URI baseUri,
+      Duration connectTimeout, Duration readTimeout) {
+    this(apiKey, scheduler, baseUri, connectTimeout, readTimeout, new SymbolDirectory());
+  }
+
+  /**
+   * Constructor for the AlphaVantageApiSource class that sends requests to the given endpoint
+   * and keeps what it learns about symbols in the given directory.
+   *
+   * @param apiKey         The API key to use for the requests.
+   * @param scheduler      The scheduler to send the requests through.
+   * @param baseUri        The query endpoint of the API.
+   * @param connectTimeout How long to wait for a connection.
+   * @param readTimeout    How long to wait for the whole response to a request.
+   * @param directory      The directory of known valid and invalid symbols.
+   */
+  public AlphaVantageApiSource(String apiKey, RequestScheduler scheduler, URI baseUri,
+      Duration connectTimeout, Duration readTimeout, SymbolDirectory directory) {
     this.apiKey = apiKey;
+    this.scheduler = scheduler;
+    this.baseUri = baseUri;
+    this.readTimeout = readTimeout;
+    this.directory = directory;
+    this.client = CLIENTS.computeIfAbsent(connectTimeout, timeout -> HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(timeout)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build());
   }
 
   /**
-   * Function to check if a given symbol is valid.
+   * Function to check if a given symbol is valid. The symbol directory is asked first, the API
+   * only for a symbol that is unknown or whose entry has expired. A symbol is valid when the
+   * search finds a listing with exactly that symbol; a search finding nothing, or only other
+   * symbols starting with it, answers that it is invalid.
    *
    * @param symbol The symbol to check.
    * @return true if the symbol is valid, false otherwise.
    */
   @Override
   public boolean isValidSymbol(String symbol) {
+    Boolean known = directory.lookup(symbol);
+    if (known != null) {
+      return known;
+    }
     try {
-      String urlString = String.format(
-          "https://www.alphavantage.co/query?function=SYMBOL_SEARCH&keywords=%s&apikey=%s",
-          symbol, this.apiKey);
-      URL url = new URL(urlString);
-      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-      connection.setRequestMethod("GET");
-
-      StringBuilder response = new StringBuilder();
-      try (BufferedReader reader = new BufferedReader(
-          new InputStreamReader(connection.getInputStream()))) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-          response.append(line).append("\n");
-        }
-      }
-
-      return !response.toString().contains("Error Message");
+      URI uri = queryUri("function=SYMBOL_SEARCH&keywords=" + encode(symbol));
+      String response = scheduler.execute("search:" + symbol,
+          RequestScheduler.currentPriority(), () -> readBody(uri));
+      boolean valid = isListed(response, symbol);
+      // a failed request says nothing about the symbol, only an answer is recorded
+      directory.record(symbol, valid);
+      return valid;
 
     } catch (Exception e) {
       System.out.println("An error occurred while validating the stock symbol: " + e.getMessage());
@@ -63,32 +203,315 @@ public class AlphaVantageApiSource implements ApiSource {
    */
   @Override
   public String fetchData(String symbol) {
-    StringBuilder response = new StringBuilder();
+    if (Boolean.FALSE.equals(directory.lookup(symbol))) {
+      return "Invalid stock symbol: " + symbol;
+    }
     try {
-      String urlString = String.format(
-          "https://www.alphavantage.co/query?function=TIME_SERIES_DAILY&symbol"
-              + "=%s&datatype=csv&apikey=%s&outputsize=full",
-          symbol, this.apiKey);
-      URL url = new URL(urlString);
-      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-      connection.setRequestMethod("GET");
-
-      try (BufferedReader reader = new BufferedReader(
-          new InputStreamReader(connection.getInputStream()))) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-          response.append(line).append("\n");
-        }
-      }
+      String response = scheduler.execute("daily:" + symbol, RequestScheduler.currentPriority(),
+          () -> readBody(dailySeriesUri(symbol, "full")));
 
-      if (response.toString().contains("Error Message")) {
+      if (response.contains("Error Message")) {
         System.out.println("Invalid stock symbol: " + symbol);
+        directory.record(symbol, false);
         return "Invalid stock symbol: " + symbol;
       }
+      directory.record(symbol, true);
+      return response;
 
     } catch (Exception e) {
       System.out.println("An error occurred while fetching stock data: " + e.getMessage());
     }
-    return response.toString();
+    return "";
+  }
+
+  /**
+   * Checks if a symbol search found a listing with exactly the given symbol.
+   *
+   * @param response The JSON response of the search.
+   * @param symbol   The symbol searched for.
+   * @return true if one of the best matches has the symbol, false otherwise.
+   * @throws IOException if the response is neither a search result nor an error.
+   */
+  private static boolean isListed(String response, String symbol) throws IOException {
+    if (response.contains("Error Message")) {
+      return false;
+    }
+    if (!response.contains("\"bestMatches\"")) {
+      throw new ApiNoticeException("Unexpected response from the API: " + response.trim());
+    }
+    String wanted = symbol.trim().toUpperCase(Locale.ROOT);
+    Matcher match = MATCHED_SYMBOL.matcher(response);
+    while (match.find()) {
+      if (match.group(1).trim().toUpperCase(Locale.ROOT).equals(wanted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Opens a stream over the daily series of the given symbol. The response is downloaded within
+   * the read timeout and decompressed as the rows are parsed.
+   *
+   * @param symbol The symbol of the stock to fetch data for.
+   * @return A stream over the CSV response.
+   * @throws IllegalArgumentException if the API reports the symbol as invalid.
+   * @throws IOException              if the request fails or the API answers with another error.
+   */
+  @Override
+  public InputStream openDataStream(String symbol) throws IOException {
+    return openSeries(symbol, "full");
+  }
+
+  /**
+   * Opens a stream over the compact daily series of the given symbol, which holds its last 100
+   * trading days.
+   *
+   * @param symbol The symbol of the stock to fetch data for.
+   * @return A stream over the CSV response.
+   * @throws IllegalArgumentException if the API reports the symbol as invalid.
+   * @throws IOException              if the request fails or the API answers with another error.
+   */
+  @Override
+  public InputStream openRecentDataStream(String symbol) throws IOException {
+    return openSeries(symbol, "compact");
+  }
+
+  /**
+   * Opens a stream over a daily series through the scheduler. A stream cannot be shared, so
+   * concurrent loads of the same symbol are coalesced by the cache rather than here. A symbol the
+   * directory knows to be invalid is rejected without a request.
+   */
+  private InputStream openSeries(String symbol, String outputSize) throws IOException {
+    if (Boolean.FALSE.equals(directory.lookup(symbol))) {
+      throw new IllegalArgumentException("Invalid stock symbol: " + symbol);
+    }
+    return scheduler.execute(null, RequestScheduler.currentPriority(), () -> {
+      InputStream stream = send(dailySeriesUri(symbol, outputSize));
+
+      // errors come back as a small JSON object instead of CSV
+      stream.mark(1);
+      if (stream.read() != '{') {
+        stream.reset();
+        directory.record(symbol, true);
+        return stream;
+      }
+      String body;
+      try (stream) {
+        body = "{" + new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+      }
+      checkNotice(body);
+      if (body.contains("Error Message")) {
+        System.out.println("Invalid stock symbol: " + symbol);
+        directory.record(symbol, false);
+        throw new IllegalArgumentException("Invalid stock symbol: " + symbol);
+      }
+      throw new ApiNoticeException("Unexpected response from the API: " + body.trim());
+    });
+  }
+
+  /**
+   * Sends a request and returns a stream over its response body, which is read as it arrives. The
+   * request timeout of the client only bounds the wait for the response headers, so a watchdog
+   * also ends the response once the read timeout is over: it cancels a response still waiting for
+   * its headers and closes the body of one that has them. A read of a body ended that way fails
+   * with an {@link HttpTimeoutException} rather than seeing a truncated response.
+   *
+   * @param uri The URI of the request.
+   * @return A buffered stream over the decompressed response body.
+   * @throws IOException if the request fails, times out or is answered with an error status.
+   */
+  private InputStream send(URI uri) throws IOException {
+    HttpRequest request = HttpRequest.newBuilder(uri)
+        .timeout(readTimeout)
+        .header("Accept-Encoding", "gzip")
+        .GET()
+        .build();
+    Deadline deadline = new Deadline(
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()), readTimeout);
+    HttpResponse<InputStream> response;
+    try {
+      response = deadline.pending.get();
+    } catch (CancellationException e) {
+      deadline.check();
+      throw new IOException("The request to the API was cancelled", e);
+    } catch (InterruptedException e) {
+      deadline.cancel();
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the API", e);
+    } catch (ExecutionException e) {
+      deadline.cancel();
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+    InputStream body = new DeadlineInputStream(response.body(), deadline);
+    try {
+      if (response.statusCode() != 200) {
+        throw new IOException("The API answered with HTTP status " + response.statusCode());
+      }
+      boolean gzip = response.headers().firstValue("Content-Encoding")
+          .map(encoding -> encoding.equalsIgnoreCase("gzip")).orElse(false);
+      return new BufferedInputStream(gzip ? new GZIPInputStream(body) : body);
+    } catch (IOException | RuntimeException e) {
+      body.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the whole response of a request.
+   *
+   * @param uri The URI of the request.
+   * @return The response body.
+   * @throws IOException if the request fails or the API answers with a notice.
+   */
+  private String readBody(URI uri) throws IOException {
+    String body;
+    try (InputStream stream = send(uri)) {
+      body = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    if (body.startsWith("{")) {
+      checkNotice(body);
+    }
+    return body;
+  }
+
+  /**
+   * Checks a JSON response for the notices the API sends in place of data, when a quota is used
+   * up or a feature is not part of the plan of the key.
+   *
+   * @param body The JSON response.
+   * @throws ThrottledException if the response is a notice about the per minute quota.
+   * @throws ApiNoticeException if the response is any other notice.
+   */
+  private static void checkNotice(String body) throws IOException {
+    if (!body.contains("\"Note\"") && !body.contains("\"Information\"")) {
+      return;
+    }
+    if (RATE_LIMIT_NOTICE.matcher(body).find()) {
+      throw new ThrottledException("API rate limit: " + body.trim());
+    }
+    throw new ApiNoticeException("API notice: " + body.trim());
+  }
+
+  /**
+   * Builds the URI of the daily series of the given symbol.
+   *
+   * @param symbol     The symbol of the stock.
+   * @param outputSize "full" for the whole history, "compact" for the last 100 trading days.
+   * @return The URI of the request.
+   */
+  private URI dailySeriesUri(String symbol, String outputSize) {
+    return queryUri("function=TIME_SERIES_DAILY&symbol=" + encode(symbol)
+        + "&datatype=csv&outputsize=" + outputSize);
+  }
+
+  private URI queryUri(String query) {
+    return URI.create(baseUri + "?" + query + "&apikey=" + encode(apiKey));
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The read timeout of one response, kept by the watchdog from the moment the request is sent.
+   */
+  private static final class Deadline implements Runnable {
+
+    private final CompletableFuture<HttpResponse<InputStream>> pending;
+    private final Duration timeout;
+    private final ScheduledFuture<?> expiry;
+    private volatile boolean expired;
+
+    private Deadline(CompletableFuture<HttpResponse<InputStream>> pending, Duration timeout) {
+      this.pending = pending;
+      this.timeout = timeout;
+      this.expiry = WATCHDOG.schedule(this, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+      expired = true;
+      pending.cancel(true);
+      // a response that already has its headers is ended by closing its body
+      pending.thenAccept(response -> {
+        try {
+          response.body().close();
+        } catch (IOException e) {
+          // the body is given up either way
+        }
+      });
+    }
+
+    /**
+     * Stops the watchdog once the response is complete or given up.
+     */
+    private void cancel() {
+      expiry.cancel(false);
+    }
+
+    /**
+     * Checks if the read timeout is over.
+     *
+     * @throws HttpTimeoutException if it is.
+     */
+    private void check() throws HttpTimeoutException {
+      if (expired) {
+        throw new HttpTimeoutException("No complete response from the API within " + timeout);
+      }
+    }
+  }
+
+  /**
+   * A response body that reports the end of its read timeout instead of the failure or the early
+   * end of stream the closing by the watchdog leads to.
+   */
+  private static final class DeadlineInputStream extends FilterInputStream {
+
+    private final Deadline deadline;
+
+    private DeadlineInputStream(InputStream body, Deadline deadline) {
+      super(body);
+      this.deadline = deadline;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read;
+      try {
+        read = super.read();
+      } catch (IOException e) {
+        deadline.check();
+        throw e;
+      }
+      if (read < 0) {
+        deadline.check();
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read;
+      try {
+        read = super.read(buffer, offset, length);
+      } catch (IOException e) {
+        deadline.check();
+        throw e;
+      }
+      if (read < 0) {
+        deadline.check();
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      deadline.cancel();
+      super.close();
+    }
   }
 }
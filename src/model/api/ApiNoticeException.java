@@ -0,0 +1,22 @@
+package model.api;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the API answers a request with a notice instead of data that sending the request
+ * again would not change, such as a premium feature notice or the daily limit. Unlike a
+ * {@link ThrottledException} it is not retried.
+ */
+class ApiNoticeException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor for the ApiNoticeException class.
+   *
+   * @param message The notice sent by the API.
+   */
+  ApiNoticeException(String message) {
+    super(message);
+  }
+}
@@ -1,5 +1,8 @@
 package model.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Interface for the API source.
  */
@@ -21,4 +24,27 @@ public interface ApiSource {
    */
   String fetchData(String symbol);
 
+  /**
+   * Function to open a stream over the data of the given symbol, so that the data can be consumed
+   * as it arrives instead of being buffered in full. The caller must close the stream.
+   *
+   * @param symbol The symbol to fetch data for.
+   * @return A stream over the CSV data of the symbol.
+   * @throws IllegalArgumentException if the symbol is invalid.
+   * @throws IOException              if the data cannot be read.
+   */
+  InputStream openDataStream(String symbol) throws IOException;
+
+  /**
+   * Function to open a stream over the recent data of the given symbol, at least its last 100
+   * trading days. It is used to bring a cached history up to date without downloading all of it
+   * again. The caller must close the stream.
+   *
+   * @param symbol The symbol to fetch data for.
+   * @return A stream over the CSV data of the recent bars of the symbol.
+   * @throws IllegalArgumentException if the symbol is invalid.
+   * @throws IOException              if the data cannot be read.
+   */
+  InputStream openRecentDataStream(String symbol) throws IOException;
+
 }
@@ -0,0 +1,150 @@
+package model.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class to represent an API source that serves stock data from a local directory instead of the
+ * network. The directory holds one file per symbol named {@code SYMBOL.csv}, in the CSV format of
+ * the Alpha Vantage TIME_SERIES_DAILY endpoint. Files are read through memory mapping.
+ */
+public class LocalCsvDirectoryApiSource implements ApiSource {
+
+  private final Path directory;
+
+  /**
+   * Constructor for the LocalCsvDirectoryApiSource class.
+   *
+   * @param directory The directory holding the per-symbol CSV files.
+   * @throws IllegalArgumentException if the directory does not exist.
+   */
+  public LocalCsvDirectoryApiSource(String directory) {
+    this.directory = Paths.get(directory);
+    if (!Files.isDirectory(this.directory)) {
+      throw new IllegalArgumentException("Directory not found: " + directory);
+    }
+  }
+
+  /**
+   * Function to check if a given symbol is valid.
+   *
+   * @param symbol The symbol to check.
+   * @return true if there is a file for the symbol, false otherwise.
+   */
+  @Override
+  public boolean isValidSymbol(String symbol) {
+    Path file = fileFor(symbol);
+    return file != null && Files.isRegularFile(file);
+  }
+
+  /**
+   * Reads the stock data of the given symbol from its file.
+   *
+   * @param symbol The symbol of the stock to fetch data for.
+   * @return A string containing the CSV data of the symbol.
+   */
+  @Override
+  public String fetchData(String symbol) {
+    if (!isValidSymbol(symbol)) {
+      System.out.println("Invalid stock symbol: " + symbol);
+      return "Invalid stock symbol: " + symbol;
+    }
+    try (FileChannel channel = FileChannel.open(fileFor(symbol), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return StandardCharsets.UTF_8.decode(buffer).toString();
+    } catch (IOException e) {
+      System.out.println("An error occurred while reading stock data: " + e.getMessage());
+      return "";
+    }
+  }
+
+  /**
+   * Opens a stream over the file of the given symbol. The file is memory mapped, so the stream
+   * reads straight from the mapped pages.
+   *
+   * @param symbol The symbol of the stock to fetch data for.
+   * @return A stream over the CSV data of the symbol.
+   * @throws IllegalArgumentException if there is no file for the symbol.
+   * @throws IOException              if the file cannot be read.
+   */
+  @Override
+  public InputStream openDataStream(String symbol) throws IOException {
+    if (!isValidSymbol(symbol)) {
+      throw new IllegalArgumentException("Invalid stock symbol: " + symbol);
+    }
+    try (FileChannel channel = FileChannel.open(fileFor(symbol), StandardOpenOption.READ)) {
+      return new MappedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Opens a stream over the file of the given symbol. Reading a mapped file is cheap, so the
+   * whole file is served.
+   *
+   * @param symbol The symbol of the stock to fetch data for.
+   * @return A stream over the CSV data of the symbol.
+   * @throws IllegalArgumentException if there is no file for the symbol.
+   * @throws IOException              if the file cannot be read.
+   */
+  @Override
+  public InputStream openRecentDataStream(String symbol) throws IOException {
+    return openDataStream(symbol);
+  }
+
+  /**
+   * Resolves the file of the given symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return The path of the file, or null if the symbol cannot name a file in the directory.
+   */
+  private Path fileFor(String symbol) {
+    if (symbol == null || symbol.isEmpty() || !symbol.matches("[A-Za-z0-9.\\-]+")
+        || symbol.startsWith(".")) {
+      return null;
+    }
+    return directory.resolve(symbol.toUpperCase() + ".csv");
+  }
+
+  /**
+   * An input stream over a mapped buffer.
+   */
+  private static class MappedInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private MappedInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
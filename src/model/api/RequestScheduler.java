@@ -0,0 +1,327 @@
+package model.api;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler for the requests sent to a rate limited API. Requests are started no faster than a
+ * per-minute and a per-day quota allow, tracked with a token bucket each. Waiting requests are
+ * kept in a priority queue so interactive lookups go ahead of background prefetches, and a request
+ * for a key that is already waiting or running shares its result instead of being sent again.
+ * Requests that fail with an {@link IOException} or are throttled by the API are retried with
+ * exponential backoff, except for those the API answered with a notice that a retry would not
+ * change.
+ */
+public class RequestScheduler {
+
+  /**
+   * The priority of a request.
+   */
+  public enum Priority {
+    /**
+     * A request a user is waiting for.
+     */
+    INTERACTIVE,
+    /**
+     * A request made ahead of time, such as a prefetch.
+     */
+    BACKGROUND
+  }
+
+  /**
+   * The request quota per minute of the free Alpha Vantage plan.
+   */
+  public static final int DEFAULT_REQUESTS_PER_MINUTE = 5;
+
+  /**
+   * The request quota per day of the free Alpha Vantage plan.
+   */
+  public static final int DEFAULT_REQUESTS_PER_DAY = 25;
+
+  private static final int MAX_ATTEMPTS = 4;
+
+  private static final long INITIAL_BACKOFF_MILLIS = 2000;
+
+  private static final ThreadLocal<Priority> PRIORITY =
+      ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+  private final TokenBucket minuteBucket;
+  private final TokenBucket dayBucket;
+  private final PriorityBlockingQueue<Request<?>> queue = new PriorityBlockingQueue<>();
+  private final Map<String, Request<?>> pending = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final ExecutorService workers = Executors.newCachedThreadPool(
+      runnable -> daemon(runnable, "api-request"));
+  private final Thread dispatcher;
+
+  /**
+   * Constructor for the RequestScheduler class, with the quotas of the free Alpha Vantage plan.
+   */
+  public RequestScheduler() {
+    this(DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_REQUESTS_PER_DAY);
+  }
+
+  /**
+   * Constructor for the RequestScheduler class.
+   *
+   * @param requestsPerMinute The number of requests that may be started per minute.
+   * @param requestsPerDay    The number of requests that may be started per day.
+   * @throws IllegalArgumentException if a quota is not positive.
+   */
+  public RequestScheduler(int requestsPerMinute, int requestsPerDay) {
+    if (requestsPerMinute <= 0 || requestsPerDay <= 0) {
+      throw new IllegalArgumentException("Request quotas should be greater than 0");
+    }
+    this.minuteBucket = new TokenBucket(requestsPerMinute, TimeUnit.MINUTES.toNanos(1));
+    this.dayBucket = new TokenBucket(requestsPerDay, TimeUnit.DAYS.toNanos(1));
+    this.dispatcher = daemon(this::dispatch, "api-request-dispatcher");
+    this.dispatcher.start();
+  }
+
+  /**
+   * Runs a task with its API requests sent at background priority.
+   *
+   * @param task The task to run on the calling thread.
+   */
+  public static void runInBackground(Runnable task) {
+    Priority previous = PRIORITY.get();
+    PRIORITY.set(Priority.BACKGROUND);
+    try {
+      task.run();
+    } finally {
+      PRIORITY.set(previous);
+    }
+  }
+
+  /**
+   * Getter for the priority of the requests made by the calling thread.
+   *
+   * @return The priority of the calling thread.
+   */
+  public static Priority currentPriority() {
+    return PRIORITY.get();
+  }
+
+  /**
+   * Sends a request and waits for its result.
+   *
+   * @param key      The key of the request, requests with the same key that overlap share one
+   *                 result. Null if the request must not be shared, such as one returning a
+   *                 stream.
+   * @param priority The priority of the request.
+   * @param request  The request to send.
+   * @param <T>      The type of the result.
+   * @return The result of the request.
+   * @throws IllegalArgumentException if the request failed with one.
+   * @throws IOException              if the request still failed after retrying, or the daily
+   *                                  quota is used up.
+   */
+  public <T> T execute(String key, Priority priority, Callable<T> request) throws IOException {
+    try {
+      return submit(key, priority, request).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the API", e);
+    } catch (ExecutionException | CancellationException e) {
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Queues a request.
+   *
+   * @param key      The key of the request, or null if the request must not be shared.
+   * @param priority The priority of the request.
+   * @param request  The request to send.
+   * @param <T>      The type of the result.
+   * @return A future of the result of the request.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> submit(String key, Priority priority, Callable<T> request) {
+    Request<T> queued = new Request<>(key, priority, sequence.incrementAndGet(), request);
+    if (key != null) {
+      Request<?> existing = pending.putIfAbsent(key, queued);
+      if (existing != null) {
+        raise(existing, priority);
+        return (CompletableFuture<T>) existing.future;
+      }
+    }
+    queue.add(queued);
+    return queued.future;
+  }
+
+  /**
+   * Moves a waiting request ahead if it is now wanted at a higher priority.
+   */
+  private synchronized void raise(Request<?> request, Priority priority) {
+    if (priority.compareTo(request.priority) >= 0) {
+      return;
+    }
+    if (queue.remove(request)) {
+      request.priority = priority;
+      queue.add(request);
+    } else {
+      // running or backing off, it is queued with the new priority if it is retried
+      request.priority = priority;
+    }
+  }
+
+  private void dispatch() {
+    while (true) {
+      try {
+        Request<?> request = queue.take();
+        long wait = minuteBucket.nanosUntilAvailable();
+        if (wait > 0) {
+          // put it back, so a request of higher priority queued meanwhile goes first
+          queue.add(request);
+          TimeUnit.NANOSECONDS.sleep(wait);
+          continue;
+        }
+        if (!dayBucket.tryAcquire()) {
+          fail(request, new IOException("Daily API request limit reached"));
+          continue;
+        }
+        minuteBucket.tryAcquire();
+        workers.execute(() -> run(request));
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private <T> void run(Request<T> request) {
+    request.attempts++;
+    try {
+      T result = request.call.call();
+      finish(request);
+      request.future.complete(result);
+    } catch (ThrottledException e) {
+      // the API counts differently than we do, wait for the whole minute window
+      minuteBucket.drain();
+      retryOrFail(request, e);
+    } catch (ApiNoticeException e) {
+      fail(request, e);
+    } catch (IOException e) {
+      retryOrFail(request, e);
+    } catch (Exception e) {
+      fail(request, e);
+    }
+  }
+
+  private void retryOrFail(Request<?> request, IOException e) {
+    if (request.attempts >= MAX_ATTEMPTS) {
+      fail(request, e);
+      return;
+    }
+    long backoff = INITIAL_BACKOFF_MILLIS << (request.attempts - 1);
+    System.out.println("API request failed, retrying in " + backoff / 1000 + "s: "
+        + e.getMessage());
+    CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, workers)
+        .execute(() -> queue.add(request));
+  }
+
+  private void fail(Request<?> request, Exception e) {
+    finish(request);
+    request.future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+  }
+
+  private void finish(Request<?> request) {
+    if (request.key != null) {
+      pending.remove(request.key, request);
+    }
+  }
+
+  private static Thread daemon(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * A queued request, ordered by priority and then by the order it was queued in.
+   */
+  private static final class Request<T> implements Comparable<Request<?>> {
+
+    private final String key;
+    private final long sequence;
+    private final Callable<T> call;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private volatile Priority priority;
+    private int attempts;
+
+    private Request(String key, Priority priority, long sequence, Callable<T> call) {
+      this.key = key;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.call = call;
+    }
+
+    @Override
+    public int compareTo(Request<?> other) {
+      int byPriority = priority.compareTo(other.priority);
+      return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * A token bucket that holds up to a quota of tokens and refills it evenly over a period.
+   */
+  private static final class TokenBucket {
+
+    private final int capacity;
+    private final double nanosPerToken;
+    private double tokens;
+    private long lastRefill;
+
+    private TokenBucket(int capacity, long periodNanos) {
+      this.capacity = capacity;
+      this.nanosPerToken = (double) periodNanos / capacity;
+      this.tokens = capacity;
+      this.lastRefill = System.nanoTime();
+    }
+
+    private synchronized long nanosUntilAvailable() {
+      refill();
+      return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+
+    private synchronized boolean tryAcquire() {
+      refill();
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+
+    private synchronized void drain() {
+      refill();
+      // the next token is a whole period away
+      tokens = Math.min(tokens, 1.0 - capacity);
+    }
+
+    private void refill() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+      lastRefill = now;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package model.api;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Directory of the symbols the API has already answered for, so that a symbol is validated over
+ * the network at most once per time to live. The symbols are kept in a trie, which also finds the
+ * known symbols starting with a prefix. A symbol found valid stays known for
+ * {@link #DEFAULT_VALID_TTL}, one found invalid for the shorter {@link #DEFAULT_INVALID_TTL}, since
+ * new listings appear and a mistyped symbol costs only one more request.
+ *
+ * <p>A directory with a file is read from it when created, and every change is appended to it, one
+ * symbol per line as {@code SYMBOL,true|false,expiry in epoch milliseconds}. A later line for a
+ * symbol replaces an earlier one, and the file is compacted when it is read and holds lines that
+ * were replaced or have expired.
+ */
+public class SymbolDirectory {
+
+  /**
+   * How long a symbol found valid is known by default.
+   */
+  public static final Duration DEFAULT_VALID_TTL = Duration.ofDays(30);
+
+  /**
+   * How long a symbol found invalid is known by default.
+   */
+  public static final Duration DEFAULT_INVALID_TTL = Duration.ofDays(1);
+
+  private final Node root = new Node();
+  private final Path file;
+  private final long validTtlMillis;
+  private final long invalidTtlMillis;
+
+  /**
+   * Constructor for the SymbolDirectory class that is kept in memory only.
+   */
+  public SymbolDirectory() {
+    this(null);
+  }
+
+  /**
+   * Constructor for the SymbolDirectory class that is kept in the given file, with the default
+   * times to live.
+   *
+   * @param file The file to read the directory from and write it to, or null to keep it in
+   *             memory only.
+   */
+  public SymbolDirectory(Path file) {
+    this(file, DEFAULT_VALID_TTL, DEFAULT_INVALID_TTL);
+  }
+
+  /**
+   * Constructor for the SymbolDirectory class. A file that cannot be read is reported and the
+   * directory starts out empty.
+   *
+   * @param file       The file to read the directory from and write it to, or null to keep it in
+   *                   memory only.
+   * @param validTtl   How long a symbol found valid is known.
+   * @param invalidTtl How long a symbol found invalid is known.
+   * @throws IllegalArgumentException if a time to live is negative.
+   */
+  public SymbolDirectory(Path file, Duration validTtl, Duration invalidTtl) {
+    if (validTtl.isNegative() || invalidTtl.isNegative()) {
+      throw new IllegalArgumentException("Times to live cannot be negative");
+    }
+    this.file = file;
+    this.validTtlMillis = validTtl.toMillis();
+    this.invalidTtlMillis = invalidTtl.toMillis();
+    if (file != null && Files.exists(file)) {
+      try {
+        if (load(file) > count(root, System.currentTimeMillis())) {
+          save(file);
+        }
+      } catch (IOException | RuntimeException e) {
+        System.out.println("An error occurred while reading the symbol directory: "
+            + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Looks up what is known about a symbol.
+   *
+   * @param symbol The symbol to look up.
+   * @return true if the symbol is known to be valid, false if it is known to be invalid, or null
+   *         if it is unknown or what was known has expired.
+   */
+  public synchronized Boolean lookup(String symbol) {
+    Node node = find(normalize(symbol));
+    if (node == null || node.expiresAt == 0 || node.expiresAt <= System.currentTimeMillis()) {
+      return null;
+    }
+    return node.valid;
+  }
+
+  /**
+   * Records whether a symbol is valid, replacing what was known about it. A directory with a file
+   * appends the change to it.
+   *
+   * @param symbol The symbol.
+   * @param valid  true if the API has the symbol, false if it reported it as invalid.
+   */
+  public synchronized void record(String symbol, boolean valid) {
+    String key = normalize(symbol);
+    if (key.isEmpty()) {
+      return;
+    }
+    long expiresAt = System.currentTimeMillis() + (valid ? validTtlMillis : invalidTtlMillis);
+    Node node = insert(key);
+    if (node.expiresAt != 0 && node.valid == valid && node.expiresAt >= expiresAt - 60_000) {
+      // nothing new, skip writing the file again
+      return;
+    }
+    node.valid = valid;
+    node.expiresAt = expiresAt;
+    if (file != null) {
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        writer.write(key + "," + valid + "," + expiresAt);
+        writer.newLine();
+      } catch (IOException e) {
+        System.out.println("An error occurred while saving the symbol directory: "
+            + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Finds the symbols known to be valid that start with the given prefix.
+   *
+   * @param prefix The prefix of the symbols.
+   * @param limit  The largest number of symbols to return.
+   * @return The symbols in alphabetical order.
+   */
+  public synchronized List<String> findByPrefix(String prefix, int limit) {
+    List<String> symbols = new ArrayList<>();
+    String key = normalize(prefix);
+    Node node = find(key);
+    if (node != null && limit > 0) {
+      collect(node, new StringBuilder(key), System.currentTimeMillis(), limit, symbols);
+    }
+    return symbols;
+  }
+
+  /**
+   * Writes the symbols that have not expired to a file. The file is written next to the target
+   * and moved over it once complete.
+   *
+   * @param path The path of the file.
+   * @throws IOException if the file cannot be written.
+   */
+  public synchronized void save(Path path) throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      write(root, new StringBuilder(), System.currentTimeMillis(), writer);
+    }
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Reads the symbols that have not expired from a file.
+   *
+   * @param path The path of the file.
+   * @return The number of lines in the file.
+   * @throws IOException if the file cannot be read.
+   */
+  private synchronized int load(Path path) throws IOException {
+    long now = System.currentTimeMillis();
+    int lines = 0;
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines++;
+        String[] parts = line.split(",");
+        if (parts.length != 3) {
+          continue;
+        }
+        long expiresAt = Long.parseLong(parts[2].trim());
+        if (expiresAt > now) {
+          Node node = insert(normalize(parts[0]));
+          node.valid = Boolean.parseBoolean(parts[1].trim());
+          node.expiresAt = expiresAt;
+        }
+      }
+    }
+    return lines;
+  }
+
+  private Node find(String key) {
+    Node node = root;
+    for (int i = 0; i < key.length() && node != null; i++) {
+      node = node.children.get(key.charAt(i));
+    }
+    return node;
+  }
+
+  private Node insert(String key) {
+    Node node = root;
+    for (int i = 0; i < key.length(); i++) {
+      node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+    }
+    return node;
+  }
+
+  private static void collect(Node node, StringBuilder path, long now, int limit,
+      List<String> symbols) {
+    if (node.valid && node.expiresAt > now) {
+      symbols.add(path.toString());
+    }
+    for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+      if (symbols.size() >= limit) {
+        return;
+      }
+      path.append(child.getKey());
+      collect(child.getValue(), path, now, limit, symbols);
+      path.setLength(path.length() - 1);
+    }
+  }
+
+  private static int count(Node node, long now) {
+    int count = node.expiresAt > now ? 1 : 0;
+    for (Node child : node.children.values()) {
+      count += count(child, now);
+    }
+    return count;
+  }
+
+  private static void write(Node node, StringBuilder path, long now, BufferedWriter writer)
+      throws IOException {
+    if (node.expiresAt > now) {
+      writer.write(path + "," + node.valid + "," + node.expiresAt);
+      writer.newLine();
+    }
+    for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+      path.append(child.getKey());
+      write(child.getValue(), path, now, writer);
+      path.setLength(path.length() - 1);
+    }
+  }
+
+  private static String normalize(String symbol) {
+    return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * A node of the trie, for the symbol spelled by the path to it. A node that only leads to
+   * longer symbols has no expiry.
+   */
+  private static final class Node {
+
+    private final TreeMap<Character, Node> children = new TreeMap<>();
+    private boolean valid;
+    private long expiresAt;
+  }
+}
@@ -0,0 +1,21 @@
+package model.api;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the API answers a request with a rate limit notice instead of data. The request may
+ * succeed when it is sent again later.
+ */
+class ThrottledException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor for the ThrottledException class.
+   *
+   * @param message The notice sent by the API.
+   */
+  ThrottledException(String message) {
+    super(message);
+  }
+}
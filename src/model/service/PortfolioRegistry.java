@@ -0,0 +1,139 @@
+package model.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import model.PortfolioInterface;
+
+/**
+ * The portfolios of a {@link PortfolioService}, indexed by name without regard to case so a lookup
+ * is one hash probe instead of a pass over every portfolio. The portfolios are also kept in the
+ * order they were added, for listing. Readers and writers may use it concurrently: writers take
+ * the lock of the registry, and reads never block. A replacement builds a new index and swaps it
+ * in, so a portfolio added at the same time is either in both the name index and the listing of
+ * the new portfolios or in neither.
+ */
+final class PortfolioRegistry {
+
+  private volatile Index index = new Index();
+
+  /**
+   * Adds a portfolio unless one with the same name already exists.
+   *
+   * @param portfolio The portfolio to add.
+   * @return true if the portfolio was added, false if its name is taken.
+   */
+  synchronized boolean add(PortfolioInterface portfolio) {
+    return index.add(portfolio);
+  }
+
+  /**
+   * Getter for the portfolio with the given name.
+   *
+   * @param name The name of the portfolio, in any case.
+   * @return The portfolio, or null if there is none with that name.
+   */
+  PortfolioInterface get(String name) {
+    if (name == null) {
+      return null;
+    }
+    Entry entry = index.byName.get(normalize(name));
+    return entry == null ? null : entry.portfolio;
+  }
+
+  /**
+   * Checks if a portfolio with the given name exists.
+   *
+   * @param name The name of the portfolio, in any case.
+   * @return true if the portfolio exists, false otherwise.
+   */
+  boolean contains(String name) {
+    return name != null && index.byName.containsKey(normalize(name));
+  }
+
+  /**
+   * Getter for the number of portfolios.
+   *
+   * @return The number of portfolios.
+   */
+  int size() {
+    return index.byName.size();
+  }
+
+  /**
+   * Getter for the portfolios in the order they were added.
+   *
+   * @return A copy of the list of portfolios.
+   */
+  List<PortfolioInterface> list() {
+    return new ArrayList<>(index.inOrder.values());
+  }
+
+  /**
+   * Replaces all the portfolios with the given ones. Of several portfolios with the same name only
+   * the first is kept, the one a lookup by name found before.
+   *
+   * @param portfolios The new portfolios.
+   */
+  synchronized void replaceAll(Collection<? extends PortfolioInterface> portfolios) {
+    Index replacement = new Index();
+    for (PortfolioInterface portfolio : portfolios) {
+      replacement.add(portfolio);
+    }
+    index = replacement;
+  }
+
+  /**
+   * Normalizes a name so that two names are equal exactly when
+   * {@link String#equalsIgnoreCase(String)} matches them.
+   *
+   * @param name The name.
+   * @return The name with every character folded to one case.
+   */
+  private static String normalize(String name) {
+    StringBuilder folded = new StringBuilder(name.length());
+    name.codePoints().forEach(
+        c -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+    return folded.toString();
+  }
+
+  /**
+   * The portfolios by name and in the order they were added. It is only changed under the lock of
+   * the registry, and read without it.
+   */
+  private static final class Index {
+
+    private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, PortfolioInterface> inOrder =
+        new ConcurrentSkipListMap<>();
+    private long nextSequence;
+
+    private boolean add(PortfolioInterface portfolio) {
+      Entry entry = new Entry(nextSequence, portfolio);
+      if (byName.putIfAbsent(normalize(portfolio.getName()), entry) != null) {
+        return false;
+      }
+      nextSequence++;
+      inOrder.put(entry.sequence, portfolio);
+      return true;
+    }
+  }
+
+  /**
+   * A portfolio with its position in the order of addition.
+   */
+  private static final class Entry {
+
+    private final long sequence;
+    private final PortfolioInterface portfolio;
+
+    private Entry(long sequence, PortfolioInterface portfolio) {
+      this.sequence = sequence;
+      this.portfolio = portfolio;
+    }
+  }
+}
@@ -30,7 +30,7 @@ import model.utilities.DateUtils;
  */
 public class PortfolioService implements PortfolioServiceInterface {
 
-  private final List<PortfolioInterface> portfolios = new ArrayList<>();
+  private final PortfolioRegistry portfolios = new PortfolioRegistry();
   private final StockServiceInterface stockService;
 
   /**
@@ -78,11 +78,10 @@ public class PortfolioService implements PortfolioServiceInterface {
    */
   public void addPortfolio(PortfolioInterface portfolio) {
     Objects.requireNonNull(portfolio, "Portfolio cannot be null");
-    if (portfolioExists(portfolio.getName())) {
+    if (!portfolios.add(portfolio)) {
       throw new IllegalArgumentException(
           "A portfolio with the name '" + portfolio.getName() + "' already exists.");
     }
-    portfolios.add(portfolio);
   }
 
   /**
@@ -144,8 +143,11 @@ public class PortfolioService implements PortfolioServiceInterface {
   public Boolean sellStockFromPortfolio(String portfolioName, String stockSymbol, int quantity,
       LocalDate date) {
     getPortfolioByName(portfolioName).ifPresent(portfolio -> {
-      portfolio.sellStock(stockSymbol, quantity, date,
-          (BigDecimal) stockService.fetchPriceOnDate(stockSymbol, date).getData());
+      Payload price = stockService.fetchPriceOnDate(stockSymbol, date);
+      if (price.isError()) {
+        throw new IllegalArgumentException(price.getMessage());
+      }
+      portfolio.sellStock(stockSymbol, quantity, date, (BigDecimal) price.getData());
     });
     return true;
   }
@@ -207,9 +209,7 @@ public class PortfolioService implements PortfolioServiceInterface {
    * @return An Optional containing the portfolio if found, or an empty Optional otherwise.
    */
   public Optional<PortfolioInterface> getPortfolioByName(String name) {
-    return portfolios.stream()
-        .filter(p -> p.getName().equalsIgnoreCase(name))
-        .findFirst();
+    return Optional.ofNullable(portfolios.get(name));
   }
 
   /**
@@ -222,7 +222,10 @@ public class PortfolioService implements PortfolioServiceInterface {
    */
   public Optional<BigDecimal> calculatePortfolioValue(String portfolioName, LocalDate onDate) {
     validatePortfolioValueInput(portfolioName, onDate);
-    return getPortfolioByName(portfolioName).map(p -> p.calculateValue(this.stockService, onDate));
+    return getPortfolioByName(portfolioName).map(p -> {
+      prefetchHoldings(p, onDate);
+      return p.calculateValue(this.stockService, onDate);
+    });
   }
 
   /**
@@ -239,6 +242,22 @@ public class PortfolioService implements PortfolioServiceInterface {
         p -> p.calculateInvestment(onDate));
   }
 
+  /**
+   * Starts loading the prices of all holdings of a portfolio at once, so that valuing them one
+   * after another does not download them one after another. The valuation waits for each
+   * symbol's load when it gets to it.
+   *
+   * @param portfolio The portfolio whose holdings to load.
+   * @param date      The date up to which the prices are needed.
+   */
+  private void prefetchHoldings(PortfolioInterface portfolio, LocalDate date) {
+    List<String> symbols = new ArrayList<>();
+    for (Tradable stock : portfolio.getStocks()) {
+      symbols.add(stock.getSymbol());
+    }
+    stockService.loadAll(symbols, date);
+  }
+
   /**
    * Validates the input for calculating the value of a portfolio.
    *
@@ -297,7 +316,8 @@ public class PortfolioService implements PortfolioServiceInterface {
    * @return A list of all portfolio names.
    */
   public List<String> listPortfolioNames() {
-    return portfolios.stream().map(PortfolioInterface::getName).collect(Collectors.toList());
+    return portfolios.list().stream().map(PortfolioInterface::getName)
+        .collect(Collectors.toList());
   }
 
   /**
@@ -308,7 +328,7 @@ public class PortfolioService implements PortfolioServiceInterface {
   public void savePortfoliosToCSV(String filePath, String type) {
     FileIO fileio = new CsvFileIO();
     try {
-      fileio.writeFile(portfolios, filePath, type);
+      fileio.writeFile(portfolios.list(), filePath, type);
     } catch (IOException e) {
       throw new IllegalArgumentException("Error saving portfolios to file: " + e.getMessage());
     }
@@ -324,8 +344,7 @@ public class PortfolioService implements PortfolioServiceInterface {
   public String loadPortfoliosFromCSV(String filePath, String type) throws IOException {
     FileIO fileio = new CsvFileIO();
     List<PortfolioInterface> loadedPortfolios = fileio.readFile(filePath, type);
-    portfolios.clear();
-    portfolios.addAll(loadedPortfolios);
+    portfolios.replaceAll(loadedPortfolios);
     return "";
   }
 
@@ -336,7 +355,7 @@ public class PortfolioService implements PortfolioServiceInterface {
    * @return True if the portfolio exists, false otherwise.
    */
   public boolean portfolioExists(String portfolioName) {
-    return portfolios.stream().anyMatch(p -> p.getName().equalsIgnoreCase(portfolioName));
+    return portfolios.contains(portfolioName);
   }
 
   /**
@@ -352,27 +371,31 @@ public class PortfolioService implements PortfolioServiceInterface {
 
   public SortedMap<LocalDate, BigDecimal> fetchPortfolioValuesForPeriod(String portfolioName,
       LocalDate startDate, LocalDate endDate) {
+    PortfolioInterface portfolio = getPortfolioByName(portfolioName).orElseThrow(
+        () -> new IllegalArgumentException("Portfolio not found: " + portfolioName));
     String resolution = DateUtils.determineResolution(startDate, endDate);
-    SortedMap<LocalDate, BigDecimal> portfolioValues = new TreeMap<>();
-    PortfolioInterface portfolio = getPortfolioByName(portfolioName).orElse(null);
     LocalDate earliestStockDate = stockService.findEarliestStockDate(portfolio);
 
     // Adjust the start date if it's before the earliest stock addition date
     LocalDate currentDate = startDate.isBefore(earliestStockDate) ? earliestStockDate : startDate;
+    List<LocalDate> targetDates = new ArrayList<>();
     while (!currentDate.isAfter(endDate)) {
       LocalDate targetDate = DateUtils.getTargetDateBasedOnResolution(currentDate, resolution,
           endDate);
-
-      // Use calculatePortfolioValue for the target date
-      BigDecimal portfolioValue = calculatePortfolioValue(portfolioName, targetDate)
-          .orElse(null);
-      portfolioValues.put(targetDate, portfolioValue);
+      if (targetDate != null && (targetDates.isEmpty()
+          || targetDate.isAfter(targetDates.get(targetDates.size() - 1)))) {
+        if (targetDate.isAfter(LocalDate.now())) {
+          throw new IllegalArgumentException("Date cannot be in the future: " + targetDate);
+        }
+        targetDates.add(targetDate);
+      }
 
       // Increment the date based on the resolution
       currentDate = incrementDateByResolution(currentDate, resolution);
     }
 
-    return portfolioValues;
+    // value all the target dates in one pass over the holdings
+    return stockService.calculatePortfolioValues(portfolio, targetDates);
   }
 
   /**
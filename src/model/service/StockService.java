@@ -1,23 +1,45 @@
 package model.service;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import controller.Payload;
 import model.PortfolioInterface;
 import model.Tradable;
+import model.analysis.CrossoverScanner;
+import model.analysis.DcaBacktest;
+import model.analysis.DcaBacktestEngine;
+import model.analysis.DcaStrategy;
+import model.analysis.MovingAverageEngine;
+import model.analysis.NavEngine;
 import model.api.ApiSource;
+import model.utilities.CacheStats;
+import model.utilities.DailyBarCsvParser;
+import model.utilities.PriceSeries;
 import model.utilities.StockDataCache;
 import model.utilities.StockInfo;
+import model.utilities.SymbolCoverage;
 import model.api.AlphaVantageApiSource;
 
 import static model.utilities.DateUtils.determineResolution;
@@ -28,7 +50,34 @@ import static model.utilities.DateUtils.getTargetDateBasedOnResolution;
  */
 public class StockService implements StockServiceInterface {
 
-  private final StockDataCache cache = new StockDataCache();
+  /**
+   * How many calendar days before a date the last close price may be taken from.
+   */
+  private static final int MAX_LOOKBACK_DAYS = 3;
+
+  /**
+   * How many calendar days old the newest cached bar of a symbol may be for a refresh to download
+   * only the recent bars. The recent data holds 100 trading days, which span more than this.
+   */
+  private static final int INCREMENTAL_REFRESH_DAYS = 100;
+
+  /**
+   * The message of a load that the source answered with an invalid symbol.
+   */
+  private static final String INVALID_SYMBOL = "Invalid stock symbol";
+
+  /**
+   * Runs the downloads started by {@link #loadAll}. The threads mostly wait on the network, so there is one per running
+   * download rather than one per core, and idle threads go away after a minute.
+   */
+  private static final ExecutorService LOAD_EXECUTOR = Executors.newCachedThreadPool(
+      runnable -> {
+        Thread thread = new Thread(runnable, "stock-load");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final StockDataCache cache;
 
   private final ApiSource source;
 
@@ -38,7 +87,28 @@ public class StockService implements StockServiceInterface {
    * @param apiKey The API key to use for fetching stock data.
    */
   public StockService(String apiKey) {
-    this.source = new AlphaVantageApiSource(apiKey);
+    this(new AlphaVantageApiSource(apiKey));
+  }
+
+  /**
+   * Constructor for the StockService class that fetches stock data from the given source.
+   *
+   * @param source The source to fetch stock data from.
+   */
+  public StockService(ApiSource source) {
+    this(source, new StockDataCache());
+  }
+
+  /**
+   * Constructor for the StockService class that fetches stock data from the given source into the
+   * given cache.
+   *
+   * @param source The source to fetch stock data from.
+   * @param cache  The cache to keep the stock data in.
+   */
+  public StockService(ApiSource source, StockDataCache cache) {
+    this.source = source;
+    this.cache = cache;
   }
 
   /**
@@ -49,13 +119,9 @@ public class StockService implements StockServiceInterface {
    * @return The price of the stock on the given date.
    */
   public Payload fetchPriceOnDate(String symbol, LocalDate date) {
-    String message;
-
-    if (!cache.hasStockData(symbol, date)) {
-      message = fetchAndCacheStockData(symbol);
-      if (message != null) {
-        return new Payload(null, message);
-      }
+    String message = ensureLoaded(symbol, date);
+    if (message != null) {
+      return new Payload(null, message);
     }
 
     StockInfo info = cache.getStockData(symbol, date);
@@ -67,81 +133,288 @@ public class StockService implements StockServiceInterface {
   }
 
   /**
-   * Fetches the closing price of the stock with the given symbol on the previous trading day.
+   * Fetches the closing price of the stock with the given symbol on the previous trading day. The
+   * nearest bar on or before the date is found with a binary search on the cached series, bars more
+   * than {@link #MAX_LOOKBACK_DAYS} days before the date are not used.
    *
    * @param symbol The symbol of the stock.
    * @param date   The date for which to fetch the previous close price.
    * @return The closing price of the stock on the previous trading day.
    */
   public Payload fetchLastClosePrice(String symbol, LocalDate date) {
-    int traverseCount = 0;
-    String message;
-
-    do {
-      if (!cache.hasStockData(symbol, date)) {
-        message = fetchAndCacheStockData(symbol);
-        if (message != null) {
-          return new Payload(null, message);
+    String message = ensureLoaded(symbol, date);
+    if (message != null) {
+      return new Payload(null, message);
+    }
+
+    PriceSeries series = cache.getSeries(symbol);
+    int day = (int) date.toEpochDay();
+    int index = series == null ? -1 : series.floorIndex(day);
+    if (index >= 0 && day - series.epochDayAt(index) <= MAX_LOOKBACK_DAYS) {
+      return new Payload(PriceSeries.toBigDecimal(series.closeAt(index)), "");
+    }
+    // no data on or shortly before the date
+    return new Payload(BigDecimal.ZERO, "");
+  }
+
+  /**
+   * Fetches the closing prices of several stocks on the previous trading day of each of several
+   * dates. The symbols start loading all at once, then each symbol's series is walked forward
+   * once with the dates instead of searched once per date. If a symbol cannot be loaded up to the
+   * last date, its prices are still read for the dates before the first one it cannot be loaded
+   * for, the dates one lookup per date would have found prices on.
+   *
+   * @param symbols The symbols of the stocks.
+   * @param dates   The dates for which the prices are to be fetched, in ascending order.
+   * @return A map from each symbol to its price on each of the dates, in the order of the dates.
+   *         The price is null on a date the symbol could not be loaded for, such as on every date
+   *         of an invalid symbol.
+   * @throws IllegalArgumentException if the dates are not in ascending order.
+   */
+  public Map<String, List<BigDecimal>> fetchLastClosePrices(Collection<String> symbols,
+      List<LocalDate> dates) {
+    Map<String, List<BigDecimal>> prices = new LinkedHashMap<>();
+    if (dates.isEmpty()) {
+      for (String symbol : symbols) {
+        prices.put(symbol, new ArrayList<>());
+      }
+      return prices;
+    }
+    int[] days = new int[dates.size()];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = (int) dates.get(i).toEpochDay();
+      if (i > 0 && days[i] < days[i - 1]) {
+        throw new IllegalArgumentException("Dates must be in ascending order: " + dates.get(i));
+      }
+    }
+    LocalDate lastDate = dates.get(dates.size() - 1);
+    loadAll(symbols, lastDate);
+
+    for (String symbol : symbols) {
+      // the history is loaded from its start, so loading it up to the last date covers them all
+      int loaded = days.length;
+      if (ensureLoaded(symbol, lastDate) != null) {
+        // the dates the cache already covers are answered without another request
+        loaded = 0;
+        while (loaded < days.length && ensureLoaded(symbol, dates.get(loaded)) == null) {
+          loaded++;
         }
       }
+      PriceSeries series = cache.getSeries(symbol);
+      long[] closes = series == null ? new long[loaded]
+          : series.lastCloses(Arrays.copyOf(days, loaded), MAX_LOOKBACK_DAYS);
+      List<BigDecimal> symbolPrices = new ArrayList<>(days.length);
+      for (long close : closes) {
+        // zero when there is no data on or shortly before the date
+        symbolPrices.add(close == 0 ? BigDecimal.ZERO : PriceSeries.toBigDecimal(close));
+      }
+      while (symbolPrices.size() < days.length) {
+        symbolPrices.add(null);
+      }
+      prices.put(symbol, symbolPrices);
+    }
+    return prices;
+  }
 
-      StockInfo info = cache.getStockData(symbol, date);
-      if (info != null) {
-        return new Payload(info.getClose(), "");
+  /**
+   * Checks whether the given symbol is a valid stock symbol. A symbol with cached data is valid
+   * and one known to be invalid is not, both without a request. Any other is checked by loading
+   * its history, which a purchase of it needs anyway, so checking it costs no extra request. A
+   * symbol whose history could not be loaded is reported as such rather than as invalid.
+   *
+   * @param symbol The symbol of the stock.
+   * @return A Payload object with true if the symbol is valid, or an error message if it is
+   *         invalid or could not be checked.
+   */
+  public Payload validateSymbol(String symbol) {
+    if (cache.hasSymbol(symbol)) {
+      return new Payload(true, "");
+    }
+    String message = ensureLoaded(symbol, LocalDate.now());
+    if (message != null) {
+      return new Payload(null, loadFailure(symbol, message).getMessage());
+    }
+    return new Payload(true, "");
+  }
+
+  /**
+   * Starts loading the data of the given symbols up to the given date, all of them at once, with
+   * the priority of a request a user is waiting for. Symbols that are already loaded up to the date
+   * are skipped without starting a task, so calling this before every valuation is cheap.
+   *
+   * @param symbols The symbols to load.
+   * @param date    The date up to which the data is needed.
+   * @return A future that completes when all the symbols have been loaded.
+   */
+  public CompletableFuture<Void> loadAll(Collection<String> symbols, LocalDate date) {
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    for (String symbol : new LinkedHashSet<>(symbols)) {
+      if (!isAvailable(symbol, date)) {
+        loads.add(CompletableFuture.runAsync(() -> ensureLoaded(symbol, date), LOAD_EXECUTOR));
       }
+    }
+    return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+  }
 
-      date = date.minusDays(1);
-      traverseCount++;
+  /**
+   * Makes sure the history of the symbol is loaded up to the given date. Dates inside the loaded
+   * history that have no bar are weekends, holidays or dates before the listing, they never cause
+   * a download.
+   *
+   * @param symbol The symbol of the stock.
+   * @param date   The date up to which the history is needed.
+   * @return A string containing an error message if the symbol is invalid or could not be loaded,
+   *         or null otherwise.
+   */
+  private String ensureLoaded(String symbol, LocalDate date) {
+    StockDataCache.Availability availability = cache.lookup(symbol, date);
+    if (availability == StockDataCache.Availability.INVALID_SYMBOL) {
+      return INVALID_SYMBOL;
+    }
+    if (availability != StockDataCache.Availability.NOT_LOADED) {
+      return null;
+    }
+    try {
+      // only one thread downloads a symbol, the others wait for it and share its outcome
+      cache.loadOnce(symbol, () -> {
+        if (!isAvailable(symbol, date)
+            && !(cache.reloadFromSnapshot(symbol) && isAvailable(symbol, date))) {
+          String message = fetchAndCacheStockData(symbol);
+          if (message != null) {
+            throw new IllegalArgumentException(message);
+          }
+        }
+      }).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IllegalArgumentException) {
+        return e.getCause().getMessage();
+      }
+      // the data is missing, not zero, so the caller has to know the load failed
+      Throwable cause = e.getCause() instanceof UncheckedIOException
+          ? e.getCause().getCause() : e.getCause();
+      return "Could not load stock data for " + symbol + ": " + cause.getMessage();
     }
-    while (traverseCount < 4);
+    return null;
+  }
 
-    return new Payload(BigDecimal.ZERO, "");
+  /**
+   * Builds the exception for a symbol that {@link #ensureLoaded} could not load.
+   *
+   * @param symbol  The symbol of the stock.
+   * @param message The message returned by {@link #ensureLoaded}.
+   * @return The exception to throw.
+   */
+  private static IllegalArgumentException loadFailure(String symbol, String message) {
+    return new IllegalArgumentException(
+        INVALID_SYMBOL.equals(message) ? INVALID_SYMBOL + ": " + symbol : message);
   }
 
+  private boolean isAvailable(String symbol, LocalDate date) {
+    return cache.hasStockData(symbol, date) || cache.isLoaded(symbol, date);
+  }
 
   /**
-   * Fetches and caches stock data for the given symbol.
+   * Getter for the hit, miss, eviction and load counters of the stock data cache.
+   *
+   * @return The counters of the cache.
+   */
+  public CacheStats getCacheStats() {
+    return cache.getStats();
+  }
+
+  /**
+   * Fetches and caches stock data for the given symbol. If the cache holds a recent history of the
+   * symbol, only the recent bars are downloaded and appended, otherwise the full history is. A
+   * symbol the source reports as invalid is remembered as such, and an empty history is recorded as
+   * loaded, so neither is downloaded again.
    *
    * @param symbol The symbol of the stock to fetch data for.
    * @return A string containing an error message if the symbol is invalid, or null otherwise.
+   * @throws UncheckedIOException if the data cannot be downloaded or read.
    */
   private String fetchAndCacheStockData(String symbol) {
-    String csvData = this.source.fetchData(symbol);
-    if (csvData.contains("Invalid stock symbol")) {
-      return "Invalid stock symbol";
+    PriceSeries cached = cache.getSeries(symbol);
+    SymbolCoverage coverage = cache.getCoverage(symbol);
+    if (cached != null && coverage != null && coverage.getLastDate() != null
+        && !coverage.getLastDate().isBefore(LocalDate.now().minusDays(INCREMENTAL_REFRESH_DAYS))) {
+      try {
+        if (refreshRecentStockData(symbol, coverage.getLastDate())) {
+          return null;
+        }
+      } catch (IllegalArgumentException e) {
+        cache.markInvalid(symbol);
+        return INVALID_SYMBOL;
+      }
+    }
+
+    PriceSeries series;
+    try (InputStream stream = this.source.openDataStream(symbol)) {
+      series = parseCsvData(stream);
+    } catch (IllegalArgumentException e) {
+      cache.markInvalid(symbol);
+      return INVALID_SYMBOL;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-    parseAndCacheCsvData(csvData, symbol);
+    cache.putSeries(symbol, series);
+    // the full history was downloaded, so it is complete up to today even if it holds no bars
+    cache.markLoaded(symbol, LocalDate.now(), Instant.now());
     return null;
   }
 
   /**
-   * Parses the CSV data and caches it.
+   * Downloads the recent bars of a symbol and appends the ones from its newest cached bar on. The
+   * newest cached bar is downloaded again, since it may have been taken during its trading day.
    *
-   * @param csvData The CSV data to parse.
-   * @param symbol  The symbol of the stock.
+   * @param symbol   The symbol of the stock.
+   * @param lastDate The date of the newest cached bar.
+   * @return true if the cache is now up to date, false if the recent bars do not reach back to
+   *         the cached ones and the full history has to be downloaded.
+   * @throws UncheckedIOException if the recent bars cannot be downloaded or read.
    */
-  private void parseAndCacheCsvData(String csvData, String symbol) {
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(new ByteArrayInputStream(csvData.getBytes())))) {
-      reader.lines().skip(1) // Skip header
-          .map(line -> line.split(",")).forEach(values -> {
-            LocalDate date = LocalDate.parse(values[0]);
-            BigDecimal open = new BigDecimal(values[1]);
-            BigDecimal high = new BigDecimal(values[2]);
-            BigDecimal low = new BigDecimal(values[3]);
-            BigDecimal close = new BigDecimal(values[4]);
-            long volume = Long.parseLong(values[5]);
-            StockInfo stockInfo = new StockInfo(date, open, high, low, close, volume);
-            cache.addStockData(symbol, date, stockInfo);
-          });
-    } catch (Exception e) {
-      System.out.println("An error occurred while parsing and caching CSV data: " + e.getMessage());
+  private boolean refreshRecentStockData(String symbol, LocalDate lastDate) {
+    PriceSeries recent;
+    try (InputStream stream = this.source.openRecentDataStream(symbol)) {
+      recent = parseCsvData(stream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    int lastDay = (int) lastDate.toEpochDay();
+    if (recent.size() == 0 || recent.epochDayAt(0) > lastDay) {
+      // a gap between the cached and the downloaded bars
+      return false;
     }
+    int from = recent.lowerBound(lastDay);
+    PriceSeries appended = new PriceSeries(recent.size() - from);
+    for (int i = from; i < recent.size(); i++) {
+      appended.add(recent.epochDayAt(i), recent.openAt(i), recent.highAt(i), recent.lowAt(i),
+          recent.closeAt(i), recent.volumeAt(i));
+    }
+    cache.putSeries(symbol, appended);
+    cache.markLoaded(symbol, LocalDate.now(), Instant.now());
+    return true;
+  }
+
+  /**
+   * Parses the CSV data into a new series. The series is only handed to the cache once it is
+   * complete, so other threads never see a partly parsed history.
+   *
+   * @param csvData The stream of CSV data to parse.
+   * @return The parsed bars.
+   * @throws IOException if the stream cannot be read in full or a row is malformed.
+   */
+  private PriceSeries parseCsvData(InputStream csvData) throws IOException {
+    PriceSeries series = new PriceSeries();
+    new DailyBarCsvParser(false).parse(csvData,
+        (ignored, epochDay, open, high, low, close, volume) ->
+            series.add(epochDay, open, high, low, close, volume));
+    return series;
   }
 
 
   /**
-   * Finds the crossover days for a given stock symbol within a specified date range.
+   * Finds the crossover days for a given stock symbol within a specified date range, using a
+   * {@link CrossoverScanner#DEFAULT_WINDOW} day moving average.
    *
    * @param symbol    The symbol of the stock to analyze.
    * @param startDate The start date of the date range.
@@ -149,6 +422,95 @@ public class StockService implements StockServiceInterface {
    * @return A list of dates within the specified range that are crossover days.
    */
   public List<LocalDate> findCrossoverDays(String symbol, LocalDate startDate, LocalDate endDate) {
+    return findCrossoverDays(symbol, startDate, endDate, CrossoverScanner.DEFAULT_WINDOW);
+  }
+
+  /**
+   * Finds the trading days within a specified date range on which the closing price of the stock
+   * crossed above its moving average.
+   *
+   * @param symbol    The symbol of the stock to analyze.
+   * @param startDate The start date of the date range.
+   * @param endDate   The end date of the date range.
+   * @param window    The number of trading days in the moving average.
+   * @return A list of dates within the specified range that are crossover days.
+   */
+  public List<LocalDate> findCrossoverDays(String symbol, LocalDate startDate, LocalDate endDate,
+      int window) {
+    validateCrossoverRange(startDate, endDate);
+    CrossoverScanner scanner = new CrossoverScanner(window);
+    return scanner.scan(loadSeries(symbol, endDate), startDate, endDate);
+  }
+
+  /**
+   * Finds the crossover days of several stock symbols within a specified date range. The symbols
+   * start loading all at once, and each is scanned in parallel as soon as it has been loaded.
+   *
+   * @param symbols   The symbols of the stocks to analyze.
+   * @param startDate The start date of the date range.
+   * @param endDate   The end date of the date range.
+   * @param window    The number of trading days in the moving average.
+   * @return A map from each symbol to its crossover days, in the order the symbols were given.
+   */
+  public Map<String, List<LocalDate>> findCrossoverDays(Collection<String> symbols,
+      LocalDate startDate, LocalDate endDate, int window) {
+    validateCrossoverRange(startDate, endDate);
+    CrossoverScanner scanner = new CrossoverScanner(window);
+    loadAll(symbols, endDate);
+
+    Map<String, ForkJoinTask<List<LocalDate>>> scans = new LinkedHashMap<>();
+    for (String symbol : symbols) {
+      // waits for the load of the symbol started above
+      PriceSeries series = loadSeries(symbol, endDate);
+      scans.put(symbol, ForkJoinPool.commonPool().submit(
+          () -> scanner.scan(series, startDate, endDate)));
+    }
+
+    Map<String, List<LocalDate>> crossoverDays = new LinkedHashMap<>();
+    scans.forEach((symbol, scan) -> crossoverDays.put(symbol, scan.join()));
+    return crossoverDays;
+  }
+
+  /**
+   * Backtests several dollar cost averaging strategies on the cached prices in parallel, without
+   * changing any portfolio, and ranks them by return. The stocks of all the strategies start
+   * loading at once, up to the last end date. A stock that cannot be loaded leaves the prices
+   * already cached, so it only fails the strategies that need a price it has none for.
+   *
+   * @param strategies The strategies to backtest.
+   * @return The backtests, the highest return first, then the strategies that failed, such as on
+   *         an invalid symbol or a stock with no price on an investment date.
+   */
+  public List<DcaBacktest> compareDcaStrategies(Collection<DcaStrategy> strategies) {
+    Set<String> symbols = new LinkedHashSet<>();
+    LocalDate lastDate = null;
+    for (DcaStrategy strategy : strategies) {
+      symbols.addAll(strategy.getStockWeights().keySet());
+      if (lastDate == null || strategy.getEndDate().isAfter(lastDate)) {
+        lastDate = strategy.getEndDate();
+      }
+    }
+    if (lastDate == null) {
+      return new ArrayList<>();
+    }
+    loadAll(symbols, lastDate);
+
+    Map<String, PriceSeries> series = new HashMap<>();
+    for (String symbol : symbols) {
+      ensureLoaded(symbol, lastDate);
+      series.put(symbol, cache.getSeries(symbol));
+    }
+    return new DcaBacktestEngine(series, MAX_LOOKBACK_DAYS)
+        .compare(strategies, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Validates the date range of a crossover scan.
+   *
+   * @param startDate The start date of the date range.
+   * @param endDate   The end date of the date range.
+   */
+  private void validateCrossoverRange(LocalDate startDate, LocalDate endDate) {
     // both start and end dates can't be in the future
     if (startDate.isAfter(LocalDate.now()) || endDate.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("Date cannot be in the future");
@@ -161,35 +523,23 @@ public class StockService implements StockServiceInterface {
     if (startDate.isEqual(endDate)) {
       throw new IllegalArgumentException("Start date should not be equal to end date");
     }
+  }
 
-    List<LocalDate> crossoverDays = new ArrayList<>();
-    String csvData = this.source.fetchData(symbol);
-    if (csvData.contains("Invalid stock symbol")) {
-      throw new IllegalArgumentException("Invalid stock symbol: " + symbol);
-    }
-
-    // Initialize variables for tracking moving average and previous day's price
-    float movingAverage = 0;
-    float prevClosePrice = 0;
-
-    // Loop through dates in the range
-    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-      Payload info = this.fetchPriceOnDate(symbol, date);
-      float closePrice = ((BigDecimal) info.getData()).floatValue();
-
-      // Calculate the moving average if we have enough data points
-      movingAverage = calculateMovingAverage(symbol, date, 30);
-
-      // Check for a positive crossover (buy signal)
-      if (prevClosePrice < movingAverage && closePrice > movingAverage) {
-        crossoverDays.add(date);
-      }
-
-      // Update the previous day's close price
-      prevClosePrice = closePrice;
+  /**
+   * Loads the history of the symbol up to the given date and returns its price series, sorted and
+   * ready to be read.
+   *
+   * @param symbol  The symbol of the stock.
+   * @param endDate The date up to which the history is needed.
+   * @return The price series of the symbol, or null if it has no data.
+   * @throws IllegalArgumentException if the symbol is invalid or could not be loaded.
+   */
+  private PriceSeries loadSeries(String symbol, LocalDate endDate) {
+    String message = ensureLoaded(symbol, endDate);
+    if (message != null) {
+      throw loadFailure(symbol, message);
     }
-
-    return crossoverDays;
+    return cache.getSeries(symbol);
   }
 
   /**
@@ -225,87 +575,17 @@ public class StockService implements StockServiceInterface {
       throw new IllegalArgumentException("Long moving period should be greater than 0");
     }
 
-    List<LocalDate> goldenCrosses = new ArrayList<>();
-    List<LocalDate> deathCrosses = new ArrayList<>();
-    List<LocalDate> movingCrossoverDays = new ArrayList<>();
-
-    LocalDate currentDate = startDate;
-    boolean isAbove = false;
-
-    while (!currentDate.isAfter(endDate)) {
-      float shortMovingAverage = calculateMovingAverage(symbol, currentDate, shortMovingPeriod);
-      float longMovingAverage = calculateMovingAverage(symbol, currentDate, longMovingPeriod);
-
-      if (shortMovingAverage > longMovingAverage && !isAbove) {
-        goldenCrosses.add(currentDate);
-        movingCrossoverDays.add(currentDate);
-        isAbove = true;
-      } else if (shortMovingAverage < longMovingAverage && isAbove) {
-        deathCrosses.add(currentDate);
-        movingCrossoverDays.add(currentDate);
-        isAbove = false;
-      }
-
-      currentDate = currentDate.plusDays(1);
-    }
+    MovingAverageEngine.Crossovers crossovers = new MovingAverageEngine(loadSeries(symbol, endDate))
+        .findMovingCrossovers(startDate, endDate, shortMovingPeriod, longMovingPeriod);
 
     Map<String, Object> result = new HashMap<>();
-    result.put("goldenCrosses", goldenCrosses);
-    result.put("deathCrosses", deathCrosses);
-    result.put("movingCrossoverDays", movingCrossoverDays);
+    result.put("goldenCrosses", crossovers.getGoldenCrosses());
+    result.put("deathCrosses", crossovers.getDeathCrosses());
+    result.put("movingCrossoverDays", crossovers.getCrossoverDays());
 
     return result;
   }
 
-  private float calculateMovingAverage(String symbol, LocalDate endDate, int period) {
-    LocalDate startDate = endDate.minusDays(period - 1);
-    float sum = 0;
-
-    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-      Payload info = this.fetchPriceOnDate(symbol, date);
-
-      if (info.getData() == null) {
-        throw new IllegalArgumentException("Invalid stock symbol:" + symbol);
-      }
-      float closePrice = ((BigDecimal) info.getData()).floatValue();
-      sum += closePrice;
-    }
-
-    return sum / period;
-  }
-
-
-  /**
-   * Checks if the stock data for the given symbol is available in the cache.
-   *
-   * @param symbol    The symbol of the stock.
-   * @param startDate The start date of the period.
-   * @param endDate   The end date of the period.
-   * @return True if the data is available in the cache, false otherwise.
-   */
-  private boolean isDataAvailableInCache(String symbol, LocalDate startDate, LocalDate endDate) {
-    // Check if the cache contains data for all days in the requested range.
-    LocalDate currentDate = startDate;
-    while (!currentDate.isAfter(endDate)) {
-      if (!cache.hasStockData(symbol, currentDate)) {
-        return false;
-      }
-      currentDate = currentDate.plusDays(1);
-    }
-    return true;
-  }
-
-  /**
-   * Updates the cache with the latest stock data from the API.
-   *
-   * @param symbol The symbol of the stock to update.
-   */
-  private void updateCacheWithApiData(String symbol) {
-    String apiResponse = this.source.fetchData(symbol); // Your method to fetch data
-    parseAndCacheCsvData(apiResponse, symbol);
-  }
-
-
   /**
    * Fetches the monthly closing prices of a stock for a given period.
    *
@@ -313,6 +593,7 @@ public class StockService implements StockServiceInterface {
    * @param startDate The start Month of the period.
    * @param endDate   The end Month of the period.
    * @return A sorted map where keys are dates (end of the month) and values are the closing prices
+   * @throws IllegalArgumentException if the symbol is invalid or could not be loaded.
    */
   public SortedMap<LocalDate, BigDecimal> fetchMonthlyClosingPricesForPeriod(String symbol,
       LocalDate startDate, LocalDate endDate) {
@@ -322,17 +603,13 @@ public class StockService implements StockServiceInterface {
     SortedMap<LocalDate, BigDecimal> values = new TreeMap<>();
     LocalDate currentDate = startDate;
 
+    // the full history is loaded at once, so the period is available once its end is covered
+    loadSeries(symbol, endDate);
+
     while (!currentDate.isAfter(endDate)) {
       LocalDate targetDate = getTargetDateBasedOnResolution(currentDate, resolution, endDate);
 
       if (targetDate != null) {
-        boolean isDataFullyAvailable = isDataAvailableInCache(symbol, startDate, endDate);
-
-        if (!isDataFullyAvailable) {
-          // Step 2: Fetch from API and update cache
-          updateCacheWithApiData(symbol);
-        }
-
         StockInfo stockInfo = cache.getStockData(symbol, targetDate);
         if (stockInfo != null) {
           values.put(targetDate, stockInfo.getClose());
@@ -379,8 +656,7 @@ public class StockService implements StockServiceInterface {
   public LocalDate findEarliestStockDate(PortfolioInterface portfolio) {
     LocalDate earliestDate = null;
     for (Tradable stock : portfolio.getStocks()) {
-      LocalDate stockDate = stock.getActivityLog().keySet().stream().min(LocalDate::compareTo)
-          .orElse(null);
+      LocalDate stockDate = stock.getFirstTransactionDate();
       if (earliestDate == null || (stockDate != null && stockDate.isBefore(earliestDate))) {
         earliestDate = stockDate;
       }
@@ -391,6 +667,33 @@ public class StockService implements StockServiceInterface {
     return earliestDate;
   }
 
+  /**
+   * Calculates the value of a portfolio on each of the given dates in one forward pass over the
+   * transactions and price series of its holdings, see {@link NavEngine}. The holdings start
+   * loading up to the last date all at once, and each is waited for when it is added.
+   *
+   * @param portfolio The portfolio to value.
+   * @param dates     The dates to value the portfolio on, in ascending order.
+   * @return A sorted map from each date to the value of the portfolio on it.
+   * @throws IllegalArgumentException if a symbol of the portfolio is invalid.
+   */
+  public SortedMap<LocalDate, BigDecimal> calculatePortfolioValues(PortfolioInterface portfolio,
+      List<LocalDate> dates) {
+    NavEngine engine = new NavEngine(MAX_LOOKBACK_DAYS);
+    if (!dates.isEmpty()) {
+      LocalDate lastDate = dates.get(dates.size() - 1);
+      List<String> symbols = new ArrayList<>();
+      for (Tradable stock : portfolio.getStocks()) {
+        symbols.add(stock.getSymbol());
+      }
+      loadAll(symbols, lastDate);
+      for (Tradable stock : portfolio.getStocks()) {
+        engine.addHolding(loadSeries(stock.getSymbol(), lastDate), stock.getTransactions());
+      }
+    }
+    return engine.valuesOn(dates);
+  }
+
 
   /**
    * Saves the stock data cache to a file.
@@ -416,6 +719,7 @@ public class StockService implements StockServiceInterface {
    * @param symbol object containing stock data for the day.
    * @param date   The date to inspect.
    * @return A string indicating the gain or loss of the stock on the given date.
+   * @throws IllegalArgumentException if the symbol is invalid or could not be loaded.
    */
   public String inspectStockGainOrLoss(String symbol, LocalDate date) {
 
@@ -423,12 +727,7 @@ public class StockService implements StockServiceInterface {
     if (date.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("Date cannot be in the future");
     }
-    boolean isDataFullyAvailable = isDataAvailableInCache(symbol, date.minusDays(1), date);
-
-    if (!isDataFullyAvailable) {
-      // Step 2: Fetch from API and update cache
-      updateCacheWithApiData(symbol);
-    }
+    loadSeries(symbol, date);
 
     StockInfo stockInfo = cache.getStockData(symbol, date);
     if (stockInfo == null) {
@@ -451,21 +750,16 @@ public class StockService implements StockServiceInterface {
    * @param endDate End date for the period.
    * @param days    Number of days for the moving average.
    * @return BigDecimal representing the X-day moving average over the specified period.
+   * @throws IllegalArgumentException if the symbol is invalid or could not be loaded.
    */
   public BigDecimal computeXDayMovingAverage(String symbol, LocalDate endDate, int days) {
     LocalDate startDate = endDate.minusDays(days);
     BigDecimal sum = BigDecimal.ZERO;
     int count = 0;
 
-    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-      boolean isDataFullyAvailable = isDataAvailableInCache(symbol, endDate.minusDays(days),
-          endDate);
-
-      if (!isDataFullyAvailable) {
-        // Step 2: Fetch from API and update cache
-        updateCacheWithApiData(symbol);
-      }
+    loadSeries(symbol, endDate);
 
+    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
       StockInfo stockInfo = cache.getStockData(symbol, date);
       if (stockInfo != null) {
         sum = sum.add(stockInfo.getClose());
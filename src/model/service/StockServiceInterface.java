@@ -2,11 +2,15 @@ package model.service;
 
 import controller.Payload;
 import model.PortfolioInterface;
+import model.analysis.DcaBacktest;
+import model.analysis.DcaStrategy;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
 import java.math.BigDecimal;
 
 /**
@@ -33,6 +37,41 @@ public interface StockServiceInterface {
    */
   Payload fetchLastClosePrice(String symbol, LocalDate date);
 
+  /**
+   * Fetches the closing prices of several stocks on the previous trading day of each of several
+   * dates, the same prices {@link #fetchLastClosePrice(String, LocalDate)} gives, reading each
+   * symbol's prices once for all the dates.
+   *
+   * @param symbols The symbols of the stocks.
+   * @param dates   The dates for which the prices are to be fetched, in ascending order.
+   * @return A map from each symbol to its price on each of the dates, in the order of the dates.
+   *         The price is null on a date the symbol could not be loaded for, such as on every date
+   *         of an invalid symbol.
+   */
+  Map<String, List<BigDecimal>> fetchLastClosePrices(Collection<String> symbols,
+      List<LocalDate> dates);
+
+  /**
+   * Checks whether the given symbol is a valid stock symbol. Symbols that are cached or known to
+   * be invalid are answered without a request.
+   *
+   * @param symbol The symbol of the stock.
+   * @return A Payload object with true if the symbol is valid, or an error message telling an
+   *         invalid symbol apart from one that could not be checked.
+   */
+  Payload validateSymbol(String symbol);
+
+  /**
+   * Starts loading the data of the given symbols up to the given date, all of them at once, with
+   * the priority of a request a user is waiting for. Symbols that are already loaded up to the
+   * date are skipped.
+   *
+   * @param symbols The symbols to load.
+   * @param date    The date up to which the data is needed.
+   * @return A future that completes when all the symbols have been loaded.
+   */
+  CompletableFuture<Void> loadAll(Collection<String> symbols, LocalDate date);
+
   /**
    * Fetches the closing prices for a given stock symbol over a specified period at a monthly
    * resolution. It dynamically adjusts the resolution based on the start and end date to optimize
@@ -58,6 +97,18 @@ public interface StockServiceInterface {
 
   LocalDate findEarliestStockDate(PortfolioInterface portfolio);
 
+  /**
+   * Calculates the value of a portfolio on each of the given dates, reading the transactions and
+   * prices of each holding once for all the dates.
+   *
+   * @param portfolio The portfolio to value.
+   * @param dates     The dates to value the portfolio on, in ascending order.
+   * @return A sorted map from each date to the value of the portfolio on it.
+   * @throws IllegalArgumentException if a symbol of the portfolio is invalid.
+   */
+  SortedMap<LocalDate, BigDecimal> calculatePortfolioValues(PortfolioInterface portfolio,
+      List<LocalDate> dates);
+
   /**
    * Loads stock data into the cache from a previously saved file. This method is used at the start
    * of the application to quickly populate the cache with data that was saved during a previous
@@ -87,6 +138,42 @@ public interface StockServiceInterface {
    */
   List<LocalDate> findCrossoverDays(String symbol, LocalDate startDate, LocalDate endDate);
 
+  /**
+   * Finds the trading days within a specified date range on which the closing price of the stock
+   * crossed above its moving average over the given number of trading days.
+   *
+   * @param symbol    The symbol of the stock to analyze.
+   * @param startDate The start date of the date range.
+   * @param endDate   The end date of the date range.
+   * @param window    The number of trading days in the moving average.
+   * @return A list of dates within the specified range that are crossover days.
+   */
+  List<LocalDate> findCrossoverDays(String symbol, LocalDate startDate, LocalDate endDate,
+      int window);
+
+  /**
+   * Finds the crossover days of several stock symbols within a specified date range, scanning the
+   * symbols in parallel.
+   *
+   * @param symbols   The symbols of the stocks to analyze.
+   * @param startDate The start date of the date range.
+   * @param endDate   The end date of the date range.
+   * @param window    The number of trading days in the moving average.
+   * @return A map from each symbol to its crossover days.
+   */
+  Map<String, List<LocalDate>> findCrossoverDays(Collection<String> symbols, LocalDate startDate,
+      LocalDate endDate, int window);
+
+  /**
+   * Backtests several dollar cost averaging strategies on the cached prices in parallel, without
+   * changing any portfolio, and ranks them by return.
+   *
+   * @param strategies The strategies to backtest.
+   * @return The backtests, the highest return first, then the strategies that failed, such as on
+   *         an invalid symbol or a stock with no price on an investment date.
+   */
+  List<DcaBacktest> compareDcaStrategies(Collection<DcaStrategy> strategies);
+
   /**
    * Finds the moving crossover days for a given stock symbol within a specified date range. A
    * moving crossover day is a day when the closing price of the stock is higher than the moving
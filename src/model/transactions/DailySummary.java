@@ -0,0 +1,55 @@
+package model.transactions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import model.utilities.Money;
+import model.utilities.Quantity;
+
+/**
+ * The transactions of a holding on one date taken together: their net quantity, and the price
+ * that pays their net cost. When the trades of the date cancel out, the price is the one of the
+ * last trade.
+ */
+final class DailySummary implements TranactionInfo {
+
+  private final Quantity quantity;
+  private final Money price;
+
+  /**
+   * Constructor for the DailySummary class.
+   *
+   * @param quantity  The net quantity of the trades, in millionths of a share.
+   * @param cost      The net cost of the trades, in ten-thousandths.
+   * @param lastPrice The price of the last trade of the date, or null if it is not known.
+   */
+  DailySummary(long quantity, long cost, Money lastPrice) {
+    this.quantity = Quantity.ofUnits(quantity);
+    if (quantity == 0 || lastPrice == null) {
+      this.price = lastPrice;
+    } else {
+      this.price = Money.of(Money.ofUnits(cost).toBigDecimal()
+          .divide(this.quantity.toBigDecimal(), Money.SCALE, RoundingMode.HALF_EVEN));
+    }
+  }
+
+  @Override
+  public float getQuantity() {
+    return quantity.floatValue();
+  }
+
+  @Override
+  public BigDecimal getPrice() {
+    return price == null ? null : price.toBigDecimal();
+  }
+
+  @Override
+  public Quantity getExactQuantity() {
+    return quantity;
+  }
+
+  @Override
+  public Money getExactPrice() {
+    return price;
+  }
+}
@@ -2,13 +2,17 @@ package model.transactions;
 
 import java.math.BigDecimal;
 
+import model.utilities.Money;
+import model.utilities.Quantity;
+
 /**
  * Class to represent the purchase of a stock.
  */
 public class PurchangeInfo implements TranactionInfo {
 
-  private final float quantity;
+  private final Quantity quantity;
   private final BigDecimal purchasePrice;
+  private final Money exactPrice;
 
   /**
    * Constructor for the PurchangeInfo class.
@@ -17,8 +21,19 @@ public class PurchangeInfo implements TranactionInfo {
    * @param purchasePrice The purchase price of the stock.
    */
   public PurchangeInfo(float quantity, BigDecimal purchasePrice) {
+    this(Quantity.of(quantity), purchasePrice);
+  }
+
+  /**
+   * Constructor for the PurchangeInfo class with an exact quantity.
+   *
+   * @param quantity      The quantity of the stock.
+   * @param purchasePrice The purchase price of the stock, or null if it is not known.
+   */
+  public PurchangeInfo(Quantity quantity, BigDecimal purchasePrice) {
     this.quantity = quantity;
     this.purchasePrice = purchasePrice;
+    this.exactPrice = purchasePrice == null ? null : Money.of(purchasePrice);
   }
 
   /**
@@ -27,7 +42,7 @@ public class PurchangeInfo implements TranactionInfo {
    * @return The quantity of the stock.
    */
   public float getQuantity() {
-    return quantity;
+    return quantity.floatValue();
   }
 
   /**
@@ -38,4 +53,22 @@ public class PurchangeInfo implements TranactionInfo {
   public BigDecimal getPrice() {
     return purchasePrice;
   }
+
+  /**
+   * Get the quantity of the stock as an exact fixed-point quantity.
+   *
+   * @return The quantity of the stock.
+   */
+  public Quantity getExactQuantity() {
+    return quantity;
+  }
+
+  /**
+   * Get the purchase price of the stock as an exact fixed-point amount.
+   *
+   * @return The purchase price of the stock, or null if it is not known.
+   */
+  public Money getExactPrice() {
+    return exactPrice;
+  }
 }
@@ -2,6 +2,9 @@ package model.transactions;
 
 import java.math.BigDecimal;
 
+import model.utilities.Money;
+import model.utilities.Quantity;
+
 /**
  * Class to represent the sale of a stock.
  */
@@ -10,8 +13,9 @@ public class SaleInfo implements TranactionInfo {
   /**
    * The quantity of the stock. Sell price of the stock.
    */
-  private float quantity;
+  private final Quantity quantity;
   private final BigDecimal sellPrice;
+  private final Money exactPrice;
 
   /**
    * Constructor for the SaleInfo class.
@@ -20,8 +24,19 @@ public class SaleInfo implements TranactionInfo {
    * @param sellPrice The sell price of the stock.
    */
   public SaleInfo(float quantity, BigDecimal sellPrice) {
+    this(Quantity.of(quantity), sellPrice);
+  }
+
+  /**
+   * Constructor for the SaleInfo class with an exact quantity.
+   *
+   * @param quantity  The quantity of the stock, negative as it leaves the holding.
+   * @param sellPrice The sell price of the stock, or null if it is not known.
+   */
+  public SaleInfo(Quantity quantity, BigDecimal sellPrice) {
     this.quantity = quantity;
     this.sellPrice = sellPrice;
+    this.exactPrice = sellPrice == null ? null : Money.of(sellPrice);
   }
 
   /**
@@ -30,7 +45,7 @@ public class SaleInfo implements TranactionInfo {
    * @return The quantity of the stock.
    */
   public float getQuantity() {
-    return quantity;
+    return quantity.floatValue();
   }
 
   /**
@@ -43,4 +58,24 @@ public class SaleInfo implements TranactionInfo {
     return this.sellPrice;
   }
 
-}
\ No newline at end of file
+  /**
+   * Get the quantity of the stock as an exact fixed-point quantity.
+   *
+   * @return The quantity of the stock, negative for a sale.
+   */
+  @Override
+  public Quantity getExactQuantity() {
+    return quantity;
+  }
+
+  /**
+   * Get the sell price of the stock as an exact fixed-point amount.
+   *
+   * @return The sell price of the stock, or null if it is not known.
+   */
+  @Override
+  public Money getExactPrice() {
+    return exactPrice;
+  }
+
+}
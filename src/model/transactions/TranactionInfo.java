@@ -2,6 +2,9 @@ package model.transactions;
 
 import java.math.BigDecimal;
 
+import model.utilities.Money;
+import model.utilities.Quantity;
+
 /**
  * Interface for the TransactionInfo class that has methods to get the quantity and price of a
  * stock.
@@ -23,4 +26,18 @@ public interface TranactionInfo {
    */
   BigDecimal getPrice();
 
+  /**
+   * Get the quantity of the stock as an exact fixed-point quantity.
+   *
+   * @return The quantity of the stock, negative for a sale.
+   */
+  Quantity getExactQuantity();
+
+  /**
+   * Get the price of the stock as an exact fixed-point amount.
+   *
+   * @return The price of the stock, or null if it is not known.
+   */
+  Money getExactPrice();
+
 }
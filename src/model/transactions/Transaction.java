@@ -0,0 +1,54 @@
+package model.transactions;
+
+import java.time.LocalDate;
+
+/**
+ * A transaction of a holding as recorded in its {@link TransactionLedger}: the trade with its
+ * date and its sequence number, which orders the trades made on the same date.
+ */
+public class Transaction {
+
+  private final LocalDate date;
+  private final int sequence;
+  private final TranactionInfo info;
+
+  /**
+   * Constructor for the Transaction class.
+   *
+   * @param date     The date of the transaction.
+   * @param sequence The sequence number of the transaction in its ledger.
+   * @param info     The quantity and price of the transaction.
+   */
+  public Transaction(LocalDate date, int sequence, TranactionInfo info) {
+    this.date = date;
+    this.sequence = sequence;
+    this.info = info;
+  }
+
+  /**
+   * Getter for the date of the transaction.
+   *
+   * @return The date of the transaction.
+   */
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Getter for the sequence number of the transaction, in the order transactions were recorded.
+   *
+   * @return The sequence number of the transaction.
+   */
+  public int getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Getter for the quantity and price of the transaction.
+   *
+   * @return The quantity and price of the transaction.
+   */
+  public TranactionInfo getInfo() {
+    return info;
+  }
+}
@@ -0,0 +1,226 @@
+package model.transactions;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.utilities.Money;
+
+/**
+ * The append-only activity log of a holding, kept sorted by date with running totals of the
+ * quantity and of the money paid, so the position and the investment as of a date are each one
+ * binary search instead of a pass over every transaction. Every transaction is kept, several on
+ * the same date included, and gets a sequence number in the order it was recorded, which orders
+ * the transactions of a date.
+ *
+ * <p>Transactions are appended in date order in the common case, which costs amortized O(1): the
+ * running totals are extended the next time they are read. A transaction dated before the last
+ * one is appended as well and the log is sorted once, on the next read, as a
+ * {@link model.utilities.PriceSeries} does with its bars. This class is thread safe.
+ */
+public class TransactionLedger {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private int[] days = new int[INITIAL_CAPACITY];
+  private int[] sequences = new int[INITIAL_CAPACITY];
+  private TranactionInfo[] infos = new TranactionInfo[INITIAL_CAPACITY];
+  // running totals, valid for the first summed transactions
+  private long[] quantities = new long[INITIAL_CAPACITY];
+  private long[] costs = new long[INITIAL_CAPACITY];
+  private int size;
+  private int summed;
+  private boolean sorted = true;
+
+  /**
+   * Records a transaction after the ones already recorded.
+   *
+   * @param date The date of the transaction.
+   * @param info The transaction.
+   * @return The sequence number of the transaction.
+   */
+  public synchronized int add(LocalDate date, TranactionInfo info) {
+    int day = (int) date.toEpochDay();
+    if (size > 0 && day < days[size - 1]) {
+      sorted = false;
+    }
+    if (size == days.length) {
+      int capacity = size * 2;
+      days = Arrays.copyOf(days, capacity);
+      sequences = Arrays.copyOf(sequences, capacity);
+      infos = Arrays.copyOf(infos, capacity);
+      quantities = Arrays.copyOf(quantities, capacity);
+      costs = Arrays.copyOf(costs, capacity);
+    }
+    days[size] = day;
+    sequences[size] = size;
+    infos[size] = info;
+    return size++;
+  }
+
+  /**
+   * Getter for the number of transactions.
+   *
+   * @return The number of transactions.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Getter for the date of the first transaction.
+   *
+   * @return The date of the first transaction, or null if there is none.
+   */
+  public synchronized LocalDate getFirstDate() {
+    ensureSummed();
+    return size == 0 ? null : LocalDate.ofEpochDay(days[0]);
+  }
+
+  /**
+   * Getter for the quantity held at the end of a date, the transactions on the date included.
+   *
+   * @param date The date.
+   * @return The quantity in millionths of a share, see {@link model.utilities.Quantity}.
+   */
+  public synchronized long quantityThrough(LocalDate date) {
+    ensureSummed();
+    int count = upperBound((int) date.toEpochDay());
+    return count == 0 ? 0 : quantities[count - 1];
+  }
+
+  /**
+   * Getter for the money paid for the holding before a date, the transactions on the date
+   * excluded. Sales count as money taken out.
+   *
+   * @param date The date.
+   * @return The amount in ten-thousandths, see {@link Money}.
+   */
+  public synchronized long costBefore(LocalDate date) {
+    ensureSummed();
+    int count = lowerBound((int) date.toEpochDay());
+    return count == 0 ? 0 : costs[count - 1];
+  }
+
+  /**
+   * Getter for the transactions in date order, and in the order they were recorded within a
+   * date.
+   *
+   * @return The transactions.
+   */
+  public synchronized List<Transaction> getTransactions() {
+    ensureSummed();
+    List<Transaction> transactions = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      transactions.add(new Transaction(LocalDate.ofEpochDay(days[i]), sequences[i], infos[i]));
+    }
+    return transactions;
+  }
+
+  /**
+   * Getter for the activity per date. A date with one transaction maps to it, a date with
+   * several to their net quantity at the price that pays their net cost, taken from the running
+   * totals.
+   *
+   * @return An unmodifiable map from each date with transactions to its activity, in date order.
+   */
+  public synchronized Map<LocalDate, TranactionInfo> asMap() {
+    ensureSummed();
+    Map<LocalDate, TranactionInfo> map = new LinkedHashMap<>();
+    int start = 0;
+    while (start < size) {
+      int end = start + 1;
+      while (end < size && days[end] == days[start]) {
+        end++;
+      }
+      TranactionInfo activity = infos[start];
+      if (end - start > 1) {
+        long quantity = quantities[end - 1] - (start == 0 ? 0 : quantities[start - 1]);
+        long cost = costs[end - 1] - (start == 0 ? 0 : costs[start - 1]);
+        activity = new DailySummary(quantity, cost, infos[end - 1].getExactPrice());
+      }
+      map.put(LocalDate.ofEpochDay(days[start]), activity);
+      start = end;
+    }
+    return Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Sorts the transactions if needed and extends the running totals over the ones added since
+   * they were last read.
+   */
+  private void ensureSummed() {
+    if (!sorted) {
+      sort();
+    }
+    for (int i = summed; i < size; i++) {
+      TranactionInfo info = infos[i];
+      long quantity = info.getExactQuantity().getUnits();
+      Money price = info.getExactPrice();
+      // a holding shown without prices only has quantities
+      long cost = price == null ? 0
+          : price.times(info.getExactQuantity(), RoundingMode.HALF_EVEN).getUnits();
+      quantities[i] = i == 0 ? quantity : Math.addExact(quantities[i - 1], quantity);
+      costs[i] = i == 0 ? cost : Math.addExact(costs[i - 1], cost);
+    }
+    summed = size;
+  }
+
+  /**
+   * Sorts the transactions by date, and by sequence number within a date.
+   */
+  private void sort() {
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> days[a] != days[b] ? Integer.compare(days[a], days[b])
+        : Integer.compare(sequences[a], sequences[b]));
+    int[] sortedDays = new int[days.length];
+    int[] sortedSequences = new int[sequences.length];
+    TranactionInfo[] sortedInfos = new TranactionInfo[infos.length];
+    for (int i = 0; i < size; i++) {
+      sortedDays[i] = days[order[i]];
+      sortedSequences[i] = sequences[order[i]];
+      sortedInfos[i] = infos[order[i]];
+    }
+    days = sortedDays;
+    sequences = sortedSequences;
+    infos = sortedInfos;
+    summed = 0;
+    sorted = true;
+  }
+
+  private int lowerBound(int day) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (days[mid] < day) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int upperBound(int day) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (days[mid] <= day) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
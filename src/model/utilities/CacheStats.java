@@ -0,0 +1,97 @@
+package model.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to represent the counters of a {@link StockDataCache}, used to size its budget. The
+ * counters may be updated from several threads at once.
+ */
+public class CacheStats {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+
+  void recordLoad(long nanos) {
+    loads.increment();
+    loadNanos.add(nanos);
+  }
+
+  /**
+   * Getter for the number of lookups answered from the cache.
+   *
+   * @return The number of hits.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Getter for the number of lookups that required loading the symbol.
+   *
+   * @return The number of misses.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Getter for the number of symbols evicted to stay within the budget.
+   *
+   * @return The number of evictions.
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Getter for the number of symbol loads, from the snapshot file or the API.
+   *
+   * @return The number of loads.
+   */
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * Getter for the total time spent loading symbols.
+   *
+   * @return The total load time in milliseconds.
+   */
+  public long getTotalLoadTimeMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(loadNanos.sum());
+  }
+
+  /**
+   * Getter for the share of lookups answered from the cache.
+   *
+   * @return The hit rate between 0 and 1, or 1 if there were no lookups.
+   */
+  public double getHitRate() {
+    long hitCount = getHits();
+    long total = hitCount + getMisses();
+    return total == 0 ? 1.0 : (double) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("hits=%d, misses=%d, hitRate=%.3f, evictions=%d, loads=%d, "
+            + "loadTime=%dms", getHits(), getMisses(), getHitRate(), getEvictions(), getLoads(),
+        getTotalLoadTimeMillis());
+  }
+}
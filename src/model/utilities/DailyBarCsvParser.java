@@ -0,0 +1,298 @@
+package model.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parser for CSV files of daily bars in the fixed {@code timestamp,open,high,low,close,volume}
+ * layout of the Alpha Vantage daily series, optionally preceded by a symbol column as in the cache
+ * file. The parser works on the raw bytes: dates become epoch days and prices fixed-point longs
+ * with {@link PriceSeries#PRICE_SCALE} decimal places without creating a String per field. A
+ * symbol String is only created when the symbol changes from one row to the next.
+ */
+public class DailyBarCsvParser {
+
+  /**
+   * Receiver of the parsed bars.
+   */
+  public interface BarSink {
+
+    /**
+     * Accepts a parsed bar.
+     *
+     * @param symbol   The symbol of the row, or null if the layout has no symbol column.
+     * @param epochDay The date of the bar as an epoch day.
+     * @param open     The opening price, scaled by {@link PriceSeries#PRICE_SCALE}.
+     * @param high     The highest price, scaled by {@link PriceSeries#PRICE_SCALE}.
+     * @param low      The lowest price, scaled by {@link PriceSeries#PRICE_SCALE}.
+     * @param close    The closing price, scaled by {@link PriceSeries#PRICE_SCALE}.
+     * @param volume   The traded volume.
+     */
+    void accept(String symbol, int epochDay, long open, long high, long low, long close,
+        long volume);
+  }
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000};
+
+  private final boolean symbolColumn;
+
+  private byte[] symbolBytes = new byte[0];
+  private String symbol;
+  private int position;
+  private int lineNumber;
+
+  /**
+   * Constructor for the DailyBarCsvParser class.
+   *
+   * @param symbolColumn true if every row starts with a symbol column, false for the API layout.
+   */
+  public DailyBarCsvParser(boolean symbolColumn) {
+    this.symbolColumn = symbolColumn;
+  }
+
+  /**
+   * Parses the CSV data of the given stream, skipping the header row and empty lines.
+   *
+   * @param in   The stream to parse, it is not closed.
+   * @param sink The receiver of the parsed bars.
+   * @return The number of bars parsed.
+   * @throws IOException if the stream cannot be read or a row is malformed.
+   */
+  public int parse(InputStream in, BarSink sink) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int length = 0;
+    int count = 0;
+    boolean header = true;
+    lineNumber = 0;
+
+    while (true) {
+      int read = in.read(buffer, length, buffer.length - length);
+      boolean eof = read < 0;
+      if (!eof) {
+        length += read;
+      }
+
+      int lineStart = 0;
+      for (int i = 0; i < length; i++) {
+        if (buffer[i] == '\n') {
+          count += parseLine(buffer, lineStart, i, header, sink);
+          header = false;
+          lineStart = i + 1;
+        }
+      }
+      if (eof) {
+        if (lineStart < length) {
+          count += parseLine(buffer, lineStart, length, header, sink);
+        }
+        return count;
+      }
+
+      // keep the unfinished line at the start of the buffer
+      length -= lineStart;
+      System.arraycopy(buffer, lineStart, buffer, 0, length);
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+  }
+
+  /**
+   * Parses the CSV data of the given byte array.
+   *
+   * @param data The CSV data to parse.
+   * @param sink The receiver of the parsed bars.
+   * @return The number of bars parsed.
+   * @throws IOException if a row is malformed.
+   */
+  public int parse(byte[] data, BarSink sink) throws IOException {
+    int count = 0;
+    boolean header = true;
+    int lineStart = 0;
+    lineNumber = 0;
+    for (int i = 0; i <= data.length; i++) {
+      if (i == data.length || data[i] == '\n') {
+        if (i > lineStart || i < data.length) {
+          count += parseLine(data, lineStart, i, header, sink);
+        }
+        header = false;
+        lineStart = i + 1;
+      }
+    }
+    return count;
+  }
+
+  private int parseLine(byte[] line, int start, int end, boolean header, BarSink sink)
+      throws IOException {
+    lineNumber++;
+    if (end > start && line[end - 1] == '\r') {
+      end--;
+    }
+    if (header || end == start) {
+      return 0;
+    }
+    position = start;
+    String rowSymbol = null;
+    if (symbolColumn) {
+      rowSymbol = parseSymbol(line, end);
+    }
+    int epochDay = parseDate(line, end);
+    long open = parsePrice(line, end);
+    long high = parsePrice(line, end);
+    long low = parsePrice(line, end);
+    long close = parsePrice(line, end);
+    long volume = parseLong(line, end);
+    if (position < end) {
+      throw malformed("unexpected trailing data");
+    }
+    sink.accept(rowSymbol, epochDay, open, high, low, close, volume);
+    return 1;
+  }
+
+  private String parseSymbol(byte[] line, int end) throws IOException {
+    int start = position;
+    while (position < end && line[position] != ',') {
+      position++;
+    }
+    int length = position - start;
+    if (length == 0 || position == end) {
+      throw malformed("missing symbol");
+    }
+    if (symbol == null || !Arrays.equals(symbolBytes, 0, symbolBytes.length,
+        line, start, position)) {
+      symbolBytes = Arrays.copyOfRange(line, start, position);
+      symbol = new String(symbolBytes, StandardCharsets.UTF_8);
+    }
+    position++; // skip the comma
+    return symbol;
+  }
+
+  private int parseDate(byte[] line, int end) throws IOException {
+    int year = parseDigits(line, end, 4);
+    expect(line, end, '-');
+    int month = parseDigits(line, end, 2);
+    expect(line, end, '-');
+    int day = parseDigits(line, end, 2);
+    skipSeparator(line, end);
+    if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      throw malformed("invalid date");
+    }
+    return (int) epochDay(year, month, day);
+  }
+
+  private long parsePrice(byte[] line, int end) throws IOException {
+    boolean negative = false;
+    if (position < end && line[position] == '-') {
+      negative = true;
+      position++;
+    }
+    long value = 0;
+    int digits = 0;
+    while (position < end && isDigit(line[position])) {
+      value = value * 10 + (line[position++] - '0');
+      digits++;
+    }
+    int fractionDigits = 0;
+    boolean roundUp = false;
+    if (position < end && line[position] == '.') {
+      position++;
+      while (position < end && isDigit(line[position])) {
+        int digit = line[position++] - '0';
+        if (fractionDigits < PriceSeries.PRICE_SCALE) {
+          value = value * 10 + digit;
+          fractionDigits++;
+        } else if (fractionDigits == PriceSeries.PRICE_SCALE) {
+          roundUp = digit >= 5;
+          fractionDigits++;
+        }
+        digits++;
+      }
+    }
+    if (digits == 0) {
+      throw malformed("invalid price");
+    }
+    skipSeparator(line, end);
+    value *= POWERS_OF_TEN[PriceSeries.PRICE_SCALE - Math.min(fractionDigits,
+        PriceSeries.PRICE_SCALE)];
+    if (roundUp) {
+      value++;
+    }
+    return negative ? -value : value;
+  }
+
+  private long parseLong(byte[] line, int end) throws IOException {
+    long value = 0;
+    int start = position;
+    while (position < end && isDigit(line[position])) {
+      value = value * 10 + (line[position++] - '0');
+    }
+    if (position == start) {
+      throw malformed("invalid volume");
+    }
+    if (position < end && line[position] == ',') {
+      position++;
+    }
+    return value;
+  }
+
+  private int parseDigits(byte[] line, int end, int count) throws IOException {
+    int value = 0;
+    for (int i = 0; i < count; i++) {
+      if (position >= end || !isDigit(line[position])) {
+        throw malformed("invalid date");
+      }
+      value = value * 10 + (line[position++] - '0');
+    }
+    return value;
+  }
+
+  private void expect(byte[] line, int end, char expected) throws IOException {
+    if (position >= end || line[position] != expected) {
+      throw malformed("expected '" + expected + "'");
+    }
+    position++;
+  }
+
+  private void skipSeparator(byte[] line, int end) throws IOException {
+    expect(line, end, ',');
+  }
+
+  private IOException malformed(String reason) {
+    return new IOException("Malformed CSV row " + lineNumber + ": " + reason);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Converts a proleptic Gregorian date to an epoch day, the same value as
+   * {@code LocalDate.of(year, month, day).toEpochDay()}.
+   */
+  private static long epochDay(int year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = (y >= 0 ? y : y - 399) / 400;
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+}
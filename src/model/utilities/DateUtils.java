@@ -4,6 +4,8 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Utility class for date-related operations.
@@ -103,4 +105,46 @@ public class DateUtils {
     }
   }
 
+  /**
+   * Returns the investment dates of a dollar cost averaging plan: the start date, then every step
+   * of the frequency after it, before the end date.
+   *
+   * @param startDate The date of the first investment.
+   * @param endDate   The end of the plan, no investment is made on or after it.
+   * @param frequency The frequency, 1 for daily, 2 for weekly, 3 for monthly, 4 for yearly.
+   * @return The investment dates in ascending order.
+   * @throws IllegalArgumentException if the start date is after the end date or today, the end
+   *                                  date is after today, or the frequency is not from 1 to 4.
+   */
+  public static List<LocalDate> getInvestmentDates(LocalDate startDate, LocalDate endDate,
+      int frequency) {
+    // start date should be before end date and start date should be before today
+    if (startDate.isAfter(endDate) || startDate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid start date");
+    }
+    // frequency should be between 1 and 4
+    if (frequency < 1 || frequency > 4) {
+      throw new IllegalArgumentException("Invalid frequency");
+    }
+    // end date should be before today
+    if (endDate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Invalid end date");
+    }
+
+    List<LocalDate> dates = new ArrayList<>();
+    LocalDate date = startDate;
+    while (date.isBefore(endDate)) {
+      dates.add(date);
+      if (frequency == 1) {
+        date = date.plusDays(1);
+      } else if (frequency == 2) {
+        date = date.plusWeeks(1);
+      } else if (frequency == 3) {
+        date = date.plusMonths(1);
+      } else {
+        date = date.plusYears(1);
+      }
+    }
+    return dates;
+  }
 }
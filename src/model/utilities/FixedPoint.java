@@ -0,0 +1,144 @@
+package model.utilities;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on scaled longs shared by {@link Money} and {@link Quantity}. Products are exact as
+ * long as they fit in a long and fall back to BigInteger when they do not, so overflow never goes
+ * unnoticed.
+ */
+final class FixedPoint {
+
+  /**
+   * The powers of ten that fit in a long, indexed by their exponent.
+   */
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private FixedPoint() {
+  }
+
+  /**
+   * Getter for a power of ten.
+   *
+   * @param exponent The exponent, from 0 to 18.
+   * @return Ten to the power of the exponent.
+   */
+  static long powerOfTen(int exponent) {
+    return POWERS_OF_TEN[exponent];
+  }
+
+  /**
+   * Converts a decimal to a scaled long.
+   *
+   * @param value    The decimal.
+   * @param scale    The number of decimal places of the result.
+   * @param rounding How to round digits beyond the scale.
+   * @return The value scaled by ten to the power of the scale.
+   * @throws ArithmeticException if the scaled value does not fit in a long.
+   */
+  static long toUnits(BigDecimal value, int scale, RoundingMode rounding) {
+    return value.setScale(scale, rounding).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Computes {@code a * b / divisor}, rounded.
+   *
+   * @param a        The first factor.
+   * @param b        The second factor.
+   * @param divisor  The divisor, not zero.
+   * @param rounding How to round the quotient.
+   * @return The rounded quotient.
+   * @throws ArithmeticException if the divisor is zero or the result does not fit in a long.
+   */
+  static long multiplyDivide(long a, long b, long divisor, RoundingMode rounding) {
+    long high = Math.multiplyHigh(a, b);
+    long low = a * b;
+    if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+      return divide(low, divisor, rounding);
+    }
+    BigInteger product = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+    BigInteger[] quotient = product.divideAndRemainder(BigInteger.valueOf(divisor));
+    // the remainder takes the sign of the product, the rounding needs the sign of the quotient
+    int sign = quotient[1].signum() == 0 ? 0 : product.signum() * Long.signum(divisor);
+    return round(quotient[0].longValueExact(), sign,
+        quotient[1].abs().shiftLeft(1).compareTo(BigInteger.valueOf(divisor).abs()), rounding);
+  }
+
+  /**
+   * Computes {@code dividend / divisor}, rounded.
+   *
+   * @param dividend The dividend.
+   * @param divisor  The divisor, not zero.
+   * @param rounding How to round the quotient.
+   * @return The rounded quotient.
+   * @throws ArithmeticException if the divisor is zero, or the rounding is UNNECESSARY and the
+   *                             quotient is not exact.
+   */
+  static long divide(long dividend, long divisor, RoundingMode rounding) {
+    if (divisor == 0) {
+      throw new ArithmeticException("Division by zero");
+    }
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (remainder == 0) {
+      return quotient;
+    }
+    int sign = Long.signum(dividend) * Long.signum(divisor);
+    // compares twice the remainder with the divisor without overflowing
+    long absRemainder = Math.abs(remainder);
+    long rest = Math.abs(divisor) - absRemainder;
+    int half = Long.compare(absRemainder, rest);
+    return round(quotient, sign, half, rounding);
+  }
+
+  /**
+   * Rounds a truncated quotient.
+   *
+   * @param quotient The quotient rounded towards zero.
+   * @param sign     The sign of the exact quotient, 0 if it was exact.
+   * @param half     The comparison of the discarded fraction with one half.
+   * @param rounding How to round the quotient.
+   * @return The rounded quotient.
+   */
+  private static long round(long quotient, int sign, int half, RoundingMode rounding) {
+    if (sign == 0) {
+      return quotient;
+    }
+    boolean awayFromZero;
+    switch (rounding) {
+      case UP:
+        awayFromZero = true;
+        break;
+      case DOWN:
+        awayFromZero = false;
+        break;
+      case CEILING:
+        awayFromZero = sign > 0;
+        break;
+      case FLOOR:
+        awayFromZero = sign < 0;
+        break;
+      case HALF_UP:
+        awayFromZero = half >= 0;
+        break;
+      case HALF_DOWN:
+        awayFromZero = half > 0;
+        break;
+      case HALF_EVEN:
+        awayFromZero = half > 0 || (half == 0 && (quotient & 1) != 0);
+        break;
+      default:
+        throw new ArithmeticException("Rounding necessary");
+    }
+    return awayFromZero ? Math.addExact(quotient, sign) : quotient;
+  }
+}
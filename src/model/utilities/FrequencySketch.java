@@ -0,0 +1,128 @@
+package model.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A count-min sketch of how often each symbol was accessed, the frequency half of the TinyLFU
+ * eviction policy of {@link StockDataCache}. Counters are capped at 15 and halved once enough
+ * accesses were recorded, so symbols that were popular long ago lose their weight over time.
+ *
+ * <p>Accesses are recorded without a lock into a ring buffer, which the thread that fills it
+ * drains into the counters if no other thread is draining. An access overwritten before it was
+ * drained is lost, the sketch only needs an estimate, and cache reads never wait on each other.
+ */
+class FrequencySketch {
+
+  private static final int BUFFER_SIZE = 128;
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final int[][] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  private final AtomicReferenceArray<String> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+  private final AtomicLong bufferWrites = new AtomicLong();
+  // guards the counters and the draining of the buffer
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Constructor for the FrequencySketch class.
+   *
+   * @param expectedEntries The number of symbols the cache is expected to hold.
+   */
+  FrequencySketch(int expectedEntries) {
+    int width = Integer.highestOneBit(Math.max(64, expectedEntries * 2 - 1)) << 1;
+    this.table = new int[DEPTH][width];
+    this.mask = width - 1;
+    this.sampleSize = width * 10;
+  }
+
+  /**
+   * Records an access of the given key, without blocking.
+   *
+   * @param key The key that was accessed.
+   */
+  void recordAccess(String key) {
+    long write = bufferWrites.getAndIncrement();
+    int slot = (int) (write & (BUFFER_SIZE - 1));
+    buffer.lazySet(slot, key);
+    if (slot == BUFFER_SIZE - 1 && lock.tryLock()) {
+      try {
+        drain();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Estimates how often the given key was accessed recently, counting the buffered accesses.
+   *
+   * @param key The key to look up.
+   * @return The estimated access count.
+   */
+  int frequency(String key) {
+    lock.lock();
+    try {
+      drain();
+      int hash = spread(key.hashCode());
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < DEPTH; i++) {
+        frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+      }
+      return frequency;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Moves the buffered accesses into the counters. The caller holds the lock.
+   */
+  private void drain() {
+    for (int i = 0; i < BUFFER_SIZE; i++) {
+      String key = buffer.getAndSet(i, null);
+      if (key != null) {
+        increment(key);
+      }
+    }
+  }
+
+  private void increment(String key) {
+    int hash = spread(key.hashCode());
+    for (int i = 0; i < DEPTH; i++) {
+      int index = indexOf(hash, i);
+      if (table[i][index] < MAX_COUNT) {
+        table[i][index]++;
+      }
+    }
+    if (++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int[] row : table) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>>= 1;
+      }
+    }
+    additions /= 2;
+  }
+
+  private int indexOf(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x45D9F3B;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,170 @@
+package model.utilities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money, held as a long count of ten-thousandths, the same fixed-point
+ * scale as the prices in a {@link PriceSeries}. Sums are exact and a product or quotient is
+ * rounded once, in the way the caller asks for, instead of on every step of a BigDecimal or
+ * float calculation.
+ */
+public final class Money implements Comparable<Money> {
+
+  /**
+   * The number of decimal places of an amount.
+   */
+  public static final int SCALE = PriceSeries.PRICE_SCALE;
+
+  /**
+   * No money.
+   */
+  public static final Money ZERO = new Money(0);
+
+  private static final long QUANTITY_ONE = FixedPoint.powerOfTen(Quantity.SCALE);
+
+  private final long units;
+
+  private Money(long units) {
+    this.units = units;
+  }
+
+  /**
+   * Creates an amount from its scaled representation.
+   *
+   * @param units The amount in ten-thousandths.
+   * @return The amount.
+   */
+  public static Money ofUnits(long units) {
+    return units == 0 ? ZERO : new Money(units);
+  }
+
+  /**
+   * Creates an amount from a decimal, rounded half up like the prices of a {@link PriceSeries}.
+   *
+   * @param amount The amount.
+   * @return The amount.
+   * @throws ArithmeticException if the amount is too large.
+   */
+  public static Money of(BigDecimal amount) {
+    return of(amount, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Creates an amount from a decimal.
+   *
+   * @param amount   The amount.
+   * @param rounding How to round digits beyond {@link #SCALE} decimal places.
+   * @return The amount.
+   * @throws ArithmeticException if the amount is too large.
+   */
+  public static Money of(BigDecimal amount, RoundingMode rounding) {
+    return ofUnits(FixedPoint.toUnits(amount, SCALE, rounding));
+  }
+
+  /**
+   * Getter for the scaled representation of the amount.
+   *
+   * @return The amount in ten-thousandths.
+   */
+  public long getUnits() {
+    return units;
+  }
+
+  /**
+   * Adds an amount to this one.
+   *
+   * @param other The amount to add.
+   * @return The sum.
+   */
+  public Money plus(Money other) {
+    return ofUnits(Math.addExact(units, other.units));
+  }
+
+  /**
+   * Subtracts an amount from this one.
+   *
+   * @param other The amount to subtract.
+   * @return The difference.
+   */
+  public Money minus(Money other) {
+    return ofUnits(Math.subtractExact(units, other.units));
+  }
+
+  /**
+   * Multiplies a price by a quantity, such as to value a holding.
+   *
+   * @param quantity The quantity.
+   * @param rounding How to round the product to {@link #SCALE} decimal places.
+   * @return The product.
+   */
+  public Money times(Quantity quantity, RoundingMode rounding) {
+    return ofUnits(FixedPoint.multiplyDivide(units, quantity.getUnits(), QUANTITY_ONE, rounding));
+  }
+
+  /**
+   * Takes a fraction of the amount, such as the share of an investment given to one stock.
+   *
+   * @param numerator   The numerator of the fraction.
+   * @param denominator The positive denominator of the fraction.
+   * @param rounding    How to round the result to {@link #SCALE} decimal places.
+   * @return The fraction of the amount.
+   */
+  public Money fraction(long numerator, long denominator, RoundingMode rounding) {
+    return ofUnits(FixedPoint.multiplyDivide(units, numerator, denominator, rounding));
+  }
+
+  /**
+   * Divides the amount by a price, giving the quantity it buys.
+   *
+   * @param price    The price of one share.
+   * @param rounding How to round the quantity to {@link Quantity#SCALE} decimal places.
+   * @return The quantity.
+   * @throws ArithmeticException if the price is zero.
+   */
+  public Quantity divide(Money price, RoundingMode rounding) {
+    if (price.units == 0) {
+      throw new ArithmeticException("Division by a zero price");
+    }
+    return Quantity.ofUnits(FixedPoint.multiplyDivide(units, QUANTITY_ONE, price.units,
+        rounding));
+  }
+
+  /**
+   * Getter for the sign of the amount.
+   *
+   * @return -1, 0 or 1 as the amount is negative, zero or positive.
+   */
+  public int signum() {
+    return Long.signum(units);
+  }
+
+  /**
+   * Converts the amount to a decimal.
+   *
+   * @return The amount with {@link #SCALE} decimal places.
+   */
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(units, SCALE);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(units, other.units);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Money && ((Money) other).units == units;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(units);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
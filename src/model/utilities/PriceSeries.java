@@ -0,0 +1,382 @@
+package model.utilities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Columnar store for the daily bars of a single stock symbol. Dates are kept as epoch-day ints and
+ * prices as fixed-point longs with {@link #PRICE_SCALE} decimal places, in parallel arrays sorted
+ * by date. The index based accessors never allocate, {@link StockInfo} objects are only built when
+ * a caller asks for one. A series that has been handed to a {@link StockDataCache} is shared
+ * between threads and must not be modified any more, use {@link #merge} to derive a new one.
+ */
+public class PriceSeries {
+
+  /**
+   * Number of decimal places kept for prices, the Alpha Vantage daily series uses four.
+   */
+  public static final int PRICE_SCALE = 4;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private int[] days;
+  private long[] open;
+  private long[] high;
+  private long[] low;
+  private long[] close;
+  private long[] volume;
+  private int size;
+  private boolean sorted = true;
+
+  /**
+   * Constructor for the PriceSeries class, creates an empty series.
+   */
+  public PriceSeries() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructor for the PriceSeries class, creates an empty series with room for the given number
+   * of bars.
+   *
+   * @param capacity The initial number of bars the series can hold without growing.
+   */
+  public PriceSeries(int capacity) {
+    capacity = Math.max(capacity, 1);
+    this.days = new int[capacity];
+    this.open = new long[capacity];
+    this.high = new long[capacity];
+    this.low = new long[capacity];
+    this.close = new long[capacity];
+    this.volume = new long[capacity];
+  }
+
+  /**
+   * Adds a bar to the series. Bars may be added in any order, a bar for a date that is already
+   * present replaces the existing one.
+   *
+   * @param epochDay The date of the bar as an epoch day.
+   * @param open     The opening price, scaled by {@link #PRICE_SCALE}.
+   * @param high     The highest price, scaled by {@link #PRICE_SCALE}.
+   * @param low      The lowest price, scaled by {@link #PRICE_SCALE}.
+   * @param close    The closing price, scaled by {@link #PRICE_SCALE}.
+   * @param volume   The traded volume.
+   */
+  public void add(int epochDay, long open, long high, long low, long close, long volume) {
+    if (size == days.length) {
+      grow(size * 2);
+    }
+    if (size > 0 && epochDay <= days[size - 1]) {
+      sorted = false;
+    }
+    this.days[size] = epochDay;
+    this.open[size] = open;
+    this.high[size] = high;
+    this.low[size] = low;
+    this.close[size] = close;
+    this.volume[size] = volume;
+    size++;
+  }
+
+  /**
+   * Adds a bar to the series from a {@link StockInfo}.
+   *
+   * @param date      The date of the bar.
+   * @param stockInfo The stock data of the bar.
+   */
+  public void add(LocalDate date, StockInfo stockInfo) {
+    add((int) date.toEpochDay(), toScaled(stockInfo.getOpen()), toScaled(stockInfo.getHigh()),
+        toScaled(stockInfo.getLow()), toScaled(stockInfo.getClose()), stockInfo.getVolume());
+  }
+
+  /**
+   * Merges two series into a new sorted series. Where both hold a bar for the same date the bar of
+   * the newer series is kept. Neither input is modified.
+   *
+   * @param older The series whose bars are replaced on conflicts.
+   * @param newer The series whose bars win on conflicts.
+   * @return A new series holding the bars of both.
+   */
+  public static PriceSeries merge(PriceSeries older, PriceSeries newer) {
+    PriceSeries merged = new PriceSeries(older.size() + newer.size());
+    merged.addAll(older);
+    merged.addAll(newer);
+    merged.ensureSorted();
+    return merged;
+  }
+
+  private void addAll(PriceSeries other) {
+    for (int i = 0; i < other.size(); i++) {
+      add(other.days[i], other.open[i], other.high[i], other.low[i], other.close[i],
+          other.volume[i]);
+    }
+  }
+
+  /**
+   * Returns the number of bars in the series.
+   *
+   * @return The number of bars in the series.
+   */
+  public int size() {
+    ensureSorted();
+    return size;
+  }
+
+  /**
+   * Finds the index of the bar on the given date.
+   *
+   * @param epochDay The date as an epoch day.
+   * @return The index of the bar, or -1 if there is no bar on that date.
+   */
+  public int indexOf(int epochDay) {
+    ensureSorted();
+    int index = Arrays.binarySearch(days, 0, size, epochDay);
+    return index >= 0 ? index : -1;
+  }
+
+  /**
+   * Finds the index of the first bar on or after the given date. Together with
+   * {@link #upperBound(int)} this gives the half open index range of a date range.
+   *
+   * @param epochDay The date as an epoch day.
+   * @return The index of the first bar on or after the date, or {@link #size()} if there is none.
+   */
+  public int lowerBound(int epochDay) {
+    ensureSorted();
+    int index = Arrays.binarySearch(days, 0, size, epochDay);
+    return index >= 0 ? index : -index - 1;
+  }
+
+  /**
+   * Finds the index of the first bar strictly after the given date.
+   *
+   * @param epochDay The date as an epoch day.
+   * @return The index of the first bar after the date, or {@link #size()} if there is none.
+   */
+  public int upperBound(int epochDay) {
+    ensureSorted();
+    int index = Arrays.binarySearch(days, 0, size, epochDay);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  /**
+   * Finds the index of the last bar on or before the given date.
+   *
+   * @param epochDay The date as an epoch day.
+   * @return The index of the last bar on or before the date, or -1 if the series has no data on or
+   *         before that date.
+   */
+  public int floorIndex(int epochDay) {
+    return upperBound(epochDay) - 1;
+  }
+
+  /**
+   * Reads the last close on or at most the look back before each of several days. The days are
+   * matched to the bars in one forward pass instead of a search per day.
+   *
+   * @param epochDays       The days as epoch days, in ascending order.
+   * @param maxLookbackDays The number of days before a day a close is still used on.
+   * @return The closing price for each day scaled by {@link #PRICE_SCALE}, or zero if the series
+   *         has no bar on or shortly before the day.
+   */
+  public long[] lastCloses(int[] epochDays, int maxLookbackDays) {
+    long[] closes = new long[epochDays.length];
+    if (epochDays.length == 0) {
+      return closes;
+    }
+    // bars before the first day are never read except the last of them
+    int bar = upperBound(epochDays[0]);
+    for (int i = 0; i < epochDays.length; i++) {
+      while (bar < size && days[bar] <= epochDays[i]) {
+        bar++;
+      }
+      if (bar > 0 && epochDays[i] - days[bar - 1] <= maxLookbackDays) {
+        closes[i] = close[bar - 1];
+      }
+    }
+    return closes;
+  }
+
+  /**
+   * Getter for the date of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The date of the bar as an epoch day.
+   */
+  public int epochDayAt(int index) {
+    return days[index];
+  }
+
+  /**
+   * Getter for the scaled opening price of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The opening price scaled by {@link #PRICE_SCALE}.
+   */
+  public long openAt(int index) {
+    return open[index];
+  }
+
+  /**
+   * Getter for the scaled highest price of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The highest price scaled by {@link #PRICE_SCALE}.
+   */
+  public long highAt(int index) {
+    return high[index];
+  }
+
+  /**
+   * Getter for the scaled lowest price of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The lowest price scaled by {@link #PRICE_SCALE}.
+   */
+  public long lowAt(int index) {
+    return low[index];
+  }
+
+  /**
+   * Getter for the scaled closing price of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The closing price scaled by {@link #PRICE_SCALE}.
+   */
+  public long closeAt(int index) {
+    return close[index];
+  }
+
+  /**
+   * Getter for the volume of the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The traded volume.
+   */
+  public long volumeAt(int index) {
+    return volume[index];
+  }
+
+  /**
+   * Builds a {@link StockInfo} for the bar at the given index.
+   *
+   * @param index The index of the bar.
+   * @return The stock data of the bar.
+   */
+  public StockInfo stockInfoAt(int index) {
+    ensureSorted();
+    return new StockInfo(LocalDate.ofEpochDay(days[index]), toBigDecimal(open[index]),
+        toBigDecimal(high[index]), toBigDecimal(low[index]), toBigDecimal(close[index]),
+        volume[index]);
+  }
+
+  /**
+   * Converts a price to its fixed-point representation.
+   *
+   * @param price The price to convert.
+   * @return The price scaled by {@link #PRICE_SCALE}.
+   */
+  public static long toScaled(BigDecimal price) {
+    return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Converts a fixed-point price back to a BigDecimal.
+   *
+   * @param scaled The price scaled by {@link #PRICE_SCALE}.
+   * @return The price as a BigDecimal.
+   */
+  public static BigDecimal toBigDecimal(long scaled) {
+    return BigDecimal.valueOf(scaled, PRICE_SCALE);
+  }
+
+  /**
+   * Sorts the bars by date if bars were added out of order, keeping the most recently added bar
+   * when a date occurs more than once.
+   */
+  private void ensureSorted() {
+    if (sorted) {
+      return;
+    }
+    sorted = true;
+    if (isStrictlyDescending()) {
+      // the API returns the newest bar first, so this is the common case
+      reverse();
+      return;
+    }
+    // sort (date, insertion index) pairs so duplicates keep their insertion order
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) days[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+
+    int[] sortedDays = new int[days.length];
+    long[] sortedOpen = new long[days.length];
+    long[] sortedHigh = new long[days.length];
+    long[] sortedLow = new long[days.length];
+    long[] sortedClose = new long[days.length];
+    long[] sortedVolume = new long[days.length];
+    int count = 0;
+    for (int k = 0; k < size; k++) {
+      int day = (int) (keys[k] >> 32);
+      if (k + 1 < size && (int) (keys[k + 1] >> 32) == day) {
+        continue; // a later bar for the same date wins
+      }
+      int i = (int) keys[k];
+      sortedDays[count] = day;
+      sortedOpen[count] = open[i];
+      sortedHigh[count] = high[i];
+      sortedLow[count] = low[i];
+      sortedClose[count] = close[i];
+      sortedVolume[count] = volume[i];
+      count++;
+    }
+    this.days = sortedDays;
+    this.open = sortedOpen;
+    this.high = sortedHigh;
+    this.low = sortedLow;
+    this.close = sortedClose;
+    this.volume = sortedVolume;
+    this.size = count;
+  }
+
+  private boolean isStrictlyDescending() {
+    for (int i = 1; i < size; i++) {
+      if (days[i] >= days[i - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void reverse() {
+    for (int i = 0, j = size - 1; i < j; i++, j--) {
+      int day = days[i];
+      days[i] = days[j];
+      days[j] = day;
+      swap(open, i, j);
+      swap(high, i, j);
+      swap(low, i, j);
+      swap(close, i, j);
+      swap(volume, i, j);
+    }
+  }
+
+  private static void swap(long[] values, int i, int j) {
+    long value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+
+  private void grow(int capacity) {
+    days = Arrays.copyOf(days, capacity);
+    open = Arrays.copyOf(open, capacity);
+    high = Arrays.copyOf(high, capacity);
+    low = Arrays.copyOf(low, capacity);
+    close = Arrays.copyOf(close, capacity);
+    volume = Arrays.copyOf(volume, capacity);
+  }
+}
@@ -0,0 +1,326 @@
+package model.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary snapshot file of the stock data cache. The file starts with a header index of all
+ * symbols, followed by one block of bars per symbol:
+ *
+ * <pre>
+ * int    magic "PMSC"
+ * int    format version
+ * int    number of symbols
+ * per symbol:
+ *   short  length of the UTF-8 symbol, followed by its bytes
+ *   long   offset of the block in the file
+ *   int    length of the block in bytes
+ *   int    number of bars
+ *   int    epoch day up to which the history is complete
+ * per symbol block, per bar in date order:
+ *   the date, open, high, low, close and volume, each as the zig-zag varint of its difference to
+ *   the same field of the previous bar
+ * </pre>
+ *
+ * <p>Consecutive bars differ by a few days and a few cents, so most fields take one or two bytes
+ * instead of the eight of a long. Opening a snapshot maps the file and reads only the index, the
+ * bars of a symbol are decoded from the mapped pages when they are read.
+ */
+public class PriceSnapshot {
+
+  private static final int MAGIC = 0x504D5343;
+  private static final int VERSION = 1;
+
+  private final MappedByteBuffer buffer;
+  private final Map<String, Block> index;
+
+  private PriceSnapshot(MappedByteBuffer buffer, Map<String, Block> index) {
+    this.buffer = buffer;
+    this.index = index;
+  }
+
+  /**
+   * Checks whether the given file starts like a snapshot file.
+   *
+   * @param path The path of the file.
+   * @return true if the file is a snapshot file, false if it is some other file such as a CSV.
+   * @throws IOException if the file cannot be read.
+   */
+  public static boolean isSnapshot(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      byte[] head = in.readNBytes(4);
+      return head.length == 4 && ByteBuffer.wrap(head).getInt() == MAGIC;
+    }
+  }
+
+  /**
+   * Opens a snapshot file. Only the header index is read, the file stays mapped for later reads.
+   *
+   * @param path The path of the file.
+   * @return The opened snapshot.
+   * @throws IOException if the file cannot be read or is not a snapshot of a known version.
+   */
+  public static PriceSnapshot open(Path path) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Cache snapshot larger than 2 GB: " + path);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a cache snapshot: " + path);
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported cache snapshot version " + version + ": " + path);
+      }
+      int count = buffer.getInt();
+      Map<String, Block> index = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        byte[] name = new byte[buffer.getShort() & 0xffff];
+        buffer.get(name);
+        Block block = new Block(buffer.getLong(), buffer.getInt(), buffer.getInt(),
+            buffer.getInt());
+        if (block.offset + block.length > buffer.capacity()) {
+          throw new IOException("Truncated cache snapshot: " + path);
+        }
+        index.put(new String(name, StandardCharsets.UTF_8), block);
+      }
+      return new PriceSnapshot(buffer, index);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt cache snapshot: " + path, e);
+    }
+  }
+
+  /**
+   * Writes a snapshot file. The file is written next to the target and moved over it once
+   * complete, so a snapshot that is open for reading stays intact until the move.
+   *
+   * @param path          The path of the file.
+   * @param series        The bars of each symbol.
+   * @param loadedThrough The date up to which the history of each symbol is complete, a symbol
+   *                      without one is taken to be complete up to its newest bar.
+   * @param previous      A snapshot whose symbols that are not in {@code series} are copied over
+   *                      as they are, without decoding them, or null.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Path path, Map<String, PriceSeries> series,
+      Map<String, LocalDate> loadedThrough, PriceSnapshot previous) throws IOException {
+    Set<String> all = new HashSet<>(series.keySet());
+    if (previous != null) {
+      all.addAll(previous.index.keySet());
+    }
+    String[] symbols = all.toArray(new String[0]);
+    Arrays.sort(symbols);
+    byte[][] names = new byte[symbols.length][];
+    ByteBuffer[] blocks = new ByteBuffer[symbols.length];
+    int[] counts = new int[symbols.length];
+    int[] throughDays = new int[symbols.length];
+    long headerSize = 12;
+    for (int i = 0; i < symbols.length; i++) {
+      names[i] = symbols[i].getBytes(StandardCharsets.UTF_8);
+      if (names[i].length > 0xffff) {
+        throw new IOException("Symbol too long: " + symbols[i]);
+      }
+      PriceSeries bars = series.get(symbols[i]);
+      if (bars != null) {
+        blocks[i] = encode(bars);
+        counts[i] = bars.size();
+        LocalDate through = loadedThrough.get(symbols[i]);
+        throughDays[i] = through != null ? (int) through.toEpochDay()
+            : bars.size() > 0 ? bars.epochDayAt(bars.size() - 1) : Integer.MIN_VALUE;
+      } else {
+        Block block = previous.index.get(symbols[i]);
+        blocks[i] = previous.buffer.slice((int) block.offset, block.length);
+        counts[i] = block.count;
+        throughDays[i] = block.loadedThrough;
+      }
+      headerSize += 2 + names[i].length + 8 + 4 + 4 + 4;
+    }
+
+    ByteBuffer header = ByteBuffer.allocate((int) headerSize);
+    header.putInt(MAGIC).putInt(VERSION).putInt(symbols.length);
+    long offset = headerSize;
+    for (int i = 0; i < symbols.length; i++) {
+      header.putShort((short) names[i].length).put(names[i]).putLong(offset)
+          .putInt(blocks[i].remaining()).putInt(counts[i]).putInt(throughDays[i]);
+      offset += blocks[i].remaining();
+    }
+    header.flip();
+
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer[] buffers = new ByteBuffer[blocks.length + 1];
+      buffers[0] = header;
+      System.arraycopy(blocks, 0, buffers, 1, blocks.length);
+      long remaining = offset;
+      while (remaining > 0) {
+        remaining -= channel.write(buffers);
+      }
+    }
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Getter for the symbols in the snapshot.
+   *
+   * @return The symbols in the snapshot.
+   */
+  public Set<String> getSymbols() {
+    return Collections.unmodifiableSet(index.keySet());
+  }
+
+  /**
+   * Checks whether the snapshot holds bars for the given symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return true if the snapshot holds the symbol, false otherwise.
+   */
+  public boolean contains(String symbol) {
+    return index.containsKey(symbol);
+  }
+
+  /**
+   * Getter for the number of bars of a symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return The number of bars, or 0 if the snapshot does not hold the symbol.
+   */
+  public int getBarCount(String symbol) {
+    Block block = index.get(symbol);
+    return block == null ? 0 : block.count;
+  }
+
+  /**
+   * Getter for the date up to which the history of a symbol is complete.
+   *
+   * @param symbol The symbol of the stock.
+   * @return The date up to which the history is complete, or null if the snapshot does not hold
+   *         the symbol or it has no bars.
+   */
+  public LocalDate getLoadedThrough(String symbol) {
+    Block block = index.get(symbol);
+    return block == null || block.loadedThrough == Integer.MIN_VALUE ? null
+        : LocalDate.ofEpochDay(block.loadedThrough);
+  }
+
+  /**
+   * Decodes the bars of a symbol. This is safe to call from several threads.
+   *
+   * @param symbol The symbol of the stock.
+   * @return A new series with the bars of the symbol, or null if the snapshot does not hold it.
+   */
+  public PriceSeries read(String symbol) {
+    Block block = index.get(symbol);
+    if (block == null) {
+      return null;
+    }
+    ByteBuffer in = buffer.slice((int) block.offset, block.length);
+    PriceSeries series = new PriceSeries(block.count);
+    int day = 0;
+    long open = 0;
+    long high = 0;
+    long low = 0;
+    long close = 0;
+    long volume = 0;
+    for (int i = 0; i < block.count; i++) {
+      day += (int) readDelta(in);
+      open += readDelta(in);
+      high += readDelta(in);
+      low += readDelta(in);
+      close += readDelta(in);
+      volume += readDelta(in);
+      series.add(day, open, high, low, close, volume);
+    }
+    return series;
+  }
+
+  private static ByteBuffer encode(PriceSeries series) {
+    // a varint of a long takes at most 10 bytes
+    ByteBuffer out = ByteBuffer.allocate(series.size() * 6 * 10);
+    long day = 0;
+    long open = 0;
+    long high = 0;
+    long low = 0;
+    long close = 0;
+    long volume = 0;
+    for (int i = 0; i < series.size(); i++) {
+      writeDelta(out, series.epochDayAt(i) - day);
+      writeDelta(out, series.openAt(i) - open);
+      writeDelta(out, series.highAt(i) - high);
+      writeDelta(out, series.lowAt(i) - low);
+      writeDelta(out, series.closeAt(i) - close);
+      writeDelta(out, series.volumeAt(i) - volume);
+      day = series.epochDayAt(i);
+      open = series.openAt(i);
+      high = series.highAt(i);
+      low = series.lowAt(i);
+      close = series.closeAt(i);
+      volume = series.volumeAt(i);
+    }
+    return ByteBuffer.wrap(Arrays.copyOf(out.array(), out.position()));
+  }
+
+  private static void writeDelta(ByteBuffer out, long delta) {
+    long value = (delta << 1) ^ (delta >> 63);
+    while ((value & ~0x7FL) != 0) {
+      out.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.put((byte) value);
+  }
+
+  private static long readDelta(ByteBuffer in) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * The position and metadata of the block of a symbol.
+   */
+  private static final class Block {
+
+    private final long offset;
+    private final int length;
+    private final int count;
+    private final int loadedThrough;
+
+    private Block(long offset, int length, int count, int loadedThrough) {
+      this.offset = offset;
+      this.length = length;
+      this.count = count;
+      this.loadedThrough = loadedThrough;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package model.utilities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable number of shares, held as a long count of millionths of a share. Sums of
+ * quantities are exact, unlike sums of floats, and a quantity converts to and from the float of
+ * the public API without the binary expansion that {@code new BigDecimal(float)} produces.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+  /**
+   * The number of decimal places of a quantity.
+   */
+  public static final int SCALE = 6;
+
+  /**
+   * No shares.
+   */
+  public static final Quantity ZERO = new Quantity(0);
+
+  private static final long ONE = FixedPoint.powerOfTen(SCALE);
+
+  private final long units;
+
+  private Quantity(long units) {
+    this.units = units;
+  }
+
+  /**
+   * Creates a quantity from its scaled representation.
+   *
+   * @param units The quantity in millionths of a share.
+   * @return The quantity.
+   */
+  public static Quantity ofUnits(long units) {
+    return units == 0 ? ZERO : new Quantity(units);
+  }
+
+  /**
+   * Creates a quantity of whole shares.
+   *
+   * @param shares The number of shares.
+   * @return The quantity.
+   */
+  public static Quantity of(long shares) {
+    return ofUnits(Math.multiplyExact(shares, ONE));
+  }
+
+  /**
+   * Creates a quantity from a float, taking the float as the decimal it prints as, so 0.1f is
+   * one tenth of a share and not the binary fraction nearest to it.
+   *
+   * @param shares The number of shares.
+   * @return The quantity, rounded half even to {@link #SCALE} decimal places.
+   * @throws IllegalArgumentException if the float is not a finite number, is too large for a
+   *                                  quantity, or is not zero but rounds to zero.
+   */
+  public static Quantity of(float shares) {
+    if (!Float.isFinite(shares)) {
+      throw new IllegalArgumentException("Quantity must be a finite number: " + shares);
+    }
+    Quantity quantity;
+    try {
+      if (shares == (long) shares) {
+        return of((long) shares);
+      }
+      quantity = of(new BigDecimal(Float.toString(shares)), RoundingMode.HALF_EVEN);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Quantity is too large: " + shares);
+    }
+    // a purchase of a few ten-millionths of a share would otherwise buy nothing without a word
+    if (quantity.units == 0) {
+      throw new IllegalArgumentException("Quantity is smaller than a millionth of a share: "
+          + shares);
+    }
+    return quantity;
+  }
+
+  /**
+   * Creates a quantity from a decimal.
+   *
+   * @param shares   The number of shares.
+   * @param rounding How to round digits beyond {@link #SCALE} decimal places.
+   * @return The quantity.
+   */
+  public static Quantity of(BigDecimal shares, RoundingMode rounding) {
+    return ofUnits(FixedPoint.toUnits(shares, SCALE, rounding));
+  }
+
+  /**
+   * Getter for the scaled representation of the quantity.
+   *
+   * @return The quantity in millionths of a share.
+   */
+  public long getUnits() {
+    return units;
+  }
+
+  /**
+   * Adds a quantity to this one.
+   *
+   * @param other The quantity to add.
+   * @return The sum.
+   */
+  public Quantity plus(Quantity other) {
+    return ofUnits(Math.addExact(units, other.units));
+  }
+
+  /**
+   * Subtracts a quantity from this one.
+   *
+   * @param other The quantity to subtract.
+   * @return The difference.
+   */
+  public Quantity minus(Quantity other) {
+    return ofUnits(Math.subtractExact(units, other.units));
+  }
+
+  /**
+   * Negates the quantity, as a sale is recorded.
+   *
+   * @return The negated quantity.
+   */
+  public Quantity negate() {
+    return ofUnits(Math.negateExact(units));
+  }
+
+  /**
+   * Getter for the sign of the quantity.
+   *
+   * @return -1, 0 or 1 as the quantity is negative, zero or positive.
+   */
+  public int signum() {
+    return Long.signum(units);
+  }
+
+  /**
+   * Converts the quantity to the float of the public API.
+   *
+   * @return The nearest float.
+   */
+  public float floatValue() {
+    return units % ONE == 0 ? (float) (units / ONE) : (float) ((double) units / ONE);
+  }
+
+  /**
+   * Converts the quantity to a decimal.
+   *
+   * @return The quantity with {@link #SCALE} decimal places.
+   */
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(units, SCALE);
+  }
+
+  @Override
+  public int compareTo(Quantity other) {
+    return Long.compare(units, other.units);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Quantity && ((Quantity) other).units == units;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(units);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().stripTrailingZeros().toPlainString();
+  }
+}
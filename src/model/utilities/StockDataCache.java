@@ -1,33 +1,246 @@
 package model.utilities;
 
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
-import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * A class to cache stock data. This class is used to store stock data in memory to avoid making
- * repeated API calls to fetch the same data.
+ * repeated API calls to fetch the same data. The bars of each symbol are kept in a columnar
+ * {@link PriceSeries}, {@link StockInfo} objects are only built when they are asked for.
+ *
+ * <p>The cache is safe to use from several threads. Published series are never modified, writes
+ * replace the series of a symbol with a new one, so reads do not take any lock. Bars added one at a
+ * time are appended to a pending series of their symbol and merged in at once on the next read of
+ * the symbol, so adding many bars this way does not copy the series for each. Loads of a symbol
+ * go through {@link #loadOnce}, which lets only one caller download a symbol while the others wait
+ * for the same result.
+ *
+ * <p>The cache holds at most a configured number of bars. When it grows beyond that, whole symbols
+ * are evicted: among the least recently used symbols, the one accessed least often is dropped. An
+ * evicted symbol is loaded again on its next lookup, from the last saved or loaded cache file if
+ * it is in there.
+ *
+ * <p>Loading a binary cache file only maps it and reads its index of symbols. The bars of a symbol
+ * are decoded from the mapped file the first time the symbol is looked up, so starting up costs
+ * time in the number of symbols rather than bars, and only the symbols a session uses take up
+ * heap.
  */
 public class StockDataCache {
 
-  private final Map<String, Map<LocalDate, StockInfo>> stockDataCache = new HashMap<>();
+  /**
+   * The result of looking up a symbol and date in the cache.
+   */
+  public enum Availability {
+    /**
+     * The cache holds a bar for the date.
+     */
+    AVAILABLE,
+    /**
+     * The date lies within the loaded history but has no bar, so it is not a trading day.
+     */
+    NOT_A_TRADING_DAY,
+    /**
+     * The date lies beyond the loaded history, the symbol has to be downloaded.
+     */
+    NOT_LOADED,
+    /**
+     * The source reported the symbol as invalid, it is not downloaded again.
+     */
+    INVALID_SYMBOL
+  }
 
   /**
-   * Adds stock data to the cache.
+   * The default budget in bars, about 90 MB or the full daily history of 300 stocks.
+   */
+  public static final long DEFAULT_MAX_BARS = 2_000_000;
+
+  /**
+   * The number of least recently used symbols among which the least frequently used is evicted.
+   */
+  private static final int EVICTION_SAMPLE = 8;
+
+  private final Map<String, Entry> stockDataCache = new ConcurrentHashMap<>();
+
+  private final Map<String, SymbolCoverage> coverage = new ConcurrentHashMap<>();
+
+  private final Map<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+
+  private final Set<String> invalidSymbols = ConcurrentHashMap.newKeySet();
+
+  // bars added one at a time and not yet merged into the series of their symbol
+  private final Map<String, PriceSeries> pendingBars = new ConcurrentHashMap<>();
+
+  private final long maxBars;
+  private final AtomicLong totalBars = new AtomicLong();
+  private final AtomicLong clock = new AtomicLong();
+  private final FrequencySketch sketch;
+  private final CacheStats stats = new CacheStats();
+  private final Object evictionLock = new Object();
+
+  private volatile String snapshotPath;
+  private volatile PriceSnapshot binarySnapshot;
+  private final Set<String> snapshotSymbols = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor for the StockDataCache class, with a budget of {@link #DEFAULT_MAX_BARS}.
+   */
+  public StockDataCache() {
+    this(DEFAULT_MAX_BARS);
+  }
+
+  /**
+   * Constructor for the StockDataCache class.
+   *
+   * @param maxBars The number of bars the cache may hold, a bar takes about 44 bytes.
+   * @throws IllegalArgumentException if the budget is not positive.
+   */
+  public StockDataCache(long maxBars) {
+    if (maxBars <= 0) {
+      throw new IllegalArgumentException("Cache size should be greater than 0");
+    }
+    this.maxBars = maxBars;
+    this.sketch = new FrequencySketch((int) Math.min(1 << 16, maxBars / 1000 + 1));
+  }
+
+  /**
+   * Adds stock data to the cache. The bar is appended to the pending bars of the symbol, which are
+   * merged into its series on its next read.
    *
    * @param symbol    The symbol of the stock.
    * @param date      The date for which the stock data is to be added.
    * @param stockInfo The stock data to be added.
    */
   public void addStockData(String symbol, LocalDate date, StockInfo stockInfo) {
-    stockDataCache.computeIfAbsent(symbol, k -> new HashMap<>()).put(date, stockInfo);
+    appendPending(symbol, bars -> bars.add(date, stockInfo));
+  }
+
+  /**
+   * Adds a bar in fixed-point form to the cache, without building a {@link StockInfo}. The bar is
+   * appended to the pending bars of the symbol, which are merged into its series on its next read.
+   *
+   * @param symbol   The symbol of the stock.
+   * @param epochDay The date of the bar as an epoch day.
+   * @param open     The opening price, scaled by {@link PriceSeries#PRICE_SCALE}.
+   * @param high     The highest price, scaled by {@link PriceSeries#PRICE_SCALE}.
+   * @param low      The lowest price, scaled by {@link PriceSeries#PRICE_SCALE}.
+   * @param close    The closing price, scaled by {@link PriceSeries#PRICE_SCALE}.
+   * @param volume   The traded volume.
+   */
+  public void addBar(String symbol, int epochDay, long open, long high, long low, long close,
+      long volume) {
+    appendPending(symbol, bars -> bars.add(epochDay, open, high, low, close, volume));
+  }
+
+  /**
+   * Adds a series of bars to the cache, merging it with the bars already cached for the symbol.
+   * Bars of the given series replace cached bars on the same date. The series must not be modified
+   * afterwards.
+   *
+   * @param symbol The symbol of the stock.
+   * @param series The bars to add.
+   */
+  public void putSeries(String symbol, PriceSeries series) {
+    // bars added earlier one at a time are older than the given ones
+    flushPending(symbol);
+    mergeSeries(symbol, series);
+  }
+
+  private void appendPending(String symbol, Consumer<PriceSeries> append) {
+    pendingBars.compute(symbol, (key, bars) -> {
+      PriceSeries pending = bars == null ? new PriceSeries() : bars;
+      append.accept(pending);
+      return pending;
+    });
+  }
+
+  /**
+   * Merges the pending bars of a symbol into its series.
+   */
+  private void flushPending(String symbol) {
+    if (pendingBars.isEmpty()) {
+      return;
+    }
+    // once removed, the pending series is no longer appended to
+    PriceSeries bars = pendingBars.remove(symbol);
+    if (bars != null) {
+      mergeSeries(symbol, bars);
+    }
+  }
+
+  private void flushAllPending() {
+    for (String symbol : pendingBars.keySet()) {
+      flushPending(symbol);
+    }
+  }
+
+  private void mergeSeries(String symbol, PriceSeries series) {
+    series.size(); // sort before the series becomes visible to other threads
+    stockDataCache.compute(symbol, (key, entry) -> {
+      PriceSeries merged = entry == null ? series : PriceSeries.merge(entry.series, series);
+      totalBars.addAndGet(merged.size() - (entry == null ? 0 : entry.series.size()));
+      return new Entry(merged, clock.incrementAndGet());
+    });
+    sketch.recordAccess(symbol);
+    evictIfNeeded(symbol);
+  }
+
+  /**
+   * Runs the loader of a symbol unless a load of the same symbol is already running, in which case
+   * the caller waits for that load instead. The loader runs on the calling thread.
+   *
+   * @param symbol The symbol of the stock.
+   * @param loader The action that loads the symbol into the cache, it should check again whether
+   *               the load is still needed since another caller may have just finished it.
+   * @return A future that completes when the load has finished, exceptionally if it failed.
+   */
+  public CompletableFuture<Void> loadOnce(String symbol, Runnable loader) {
+    CompletableFuture<Void> load = new CompletableFuture<>();
+    CompletableFuture<Void> running = loading.putIfAbsent(symbol, load);
+    if (running != null) {
+      return running;
+    }
+    long start = System.nanoTime();
+    try {
+      loader.run();
+      stats.recordLoad(System.nanoTime() - start);
+      load.complete(null);
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+    } finally {
+      loading.remove(symbol, load);
+    }
+    return load;
+  }
+
+  /**
+   * Fetches the columnar price series of a symbol. The series gives allocation free access to the
+   * bars by index and to the index range of a date range.
+   *
+   * @param symbol The symbol of the stock.
+   * @return The price series of the symbol, or null if the symbol is not cached.
+   */
+  public PriceSeries getSeries(String symbol) {
+    return seriesOf(symbol);
   }
 
   /**
@@ -38,7 +251,42 @@ public class StockDataCache {
    * @return stock data for the given symbol and date.
    */
   public StockInfo getStockData(String symbol, LocalDate date) {
-    return stockDataCache.getOrDefault(symbol, new HashMap<>()).get(date);
+    PriceSeries series = seriesOf(symbol);
+    if (series == null) {
+      return null;
+    }
+    int index = series.indexOf((int) date.toEpochDay());
+    return index < 0 ? null : series.stockInfoAt(index);
+  }
+
+  /**
+   * Fetches the last stock data on or before the given date, using a binary search on the date
+   * index of the symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @param date   The date on or before which the stock data is to be fetched.
+   * @return The nearest stock data on or before the date, or null if the cache holds no data for
+   *         the symbol on or before that date.
+   */
+  public StockInfo getStockDataOnOrBefore(String symbol, LocalDate date) {
+    PriceSeries series = seriesOf(symbol);
+    if (series == null) {
+      return null;
+    }
+    int index = series.floorIndex((int) date.toEpochDay());
+    return index < 0 ? null : series.stockInfoAt(index);
+  }
+
+  /**
+   * Checks if the cache contains any stock data for the given symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return true if the cache contains stock data for the symbol, false otherwise.
+   */
+  public boolean hasSymbol(String symbol) {
+    Entry entry = entryOf(symbol);
+    PriceSeries series = entry == null ? null : entry.series;
+    return series != null && series.size() > 0;
   }
 
   /**
@@ -49,55 +297,239 @@ public class StockDataCache {
    * @return true if the cache contains stock data for the given symbol and date, false otherwise.
    */
   public boolean hasStockData(String symbol, LocalDate date) {
-    return stockDataCache.containsKey(symbol) && stockDataCache.get(symbol).containsKey(date);
+    Entry entry = entryOf(symbol);
+    PriceSeries series = entry == null ? null : entry.series;
+    return series != null && series.indexOf((int) date.toEpochDay()) >= 0;
+  }
+
+  /**
+   * Looks up the given symbol and date, telling apart dates that are not trading days from dates
+   * that have not been loaded yet.
+   *
+   * @param symbol The symbol of the stock.
+   * @param date   The date to look up.
+   * @return Whether the cache holds a bar for the date, knows the date is not a trading day, knows
+   *         the symbol is invalid, or has to load the symbol first.
+   */
+  public Availability lookup(String symbol, LocalDate date) {
+    if (invalidSymbols.contains(symbol)) {
+      stats.recordHit();
+      return Availability.INVALID_SYMBOL;
+    }
+    PriceSeries series = seriesOf(symbol);
+    if (series != null && series.indexOf((int) date.toEpochDay()) >= 0) {
+      stats.recordHit();
+      return Availability.AVAILABLE;
+    }
+    if (isLoaded(symbol, date)) {
+      stats.recordHit();
+      return Availability.NOT_A_TRADING_DAY;
+    }
+    stats.recordMiss();
+    return Availability.NOT_LOADED;
+  }
+
+  /**
+   * Checks if the full history of the symbol has been loaded up to the given date.
+   *
+   * @param symbol The symbol of the stock.
+   * @param date   The date up to which the history is needed.
+   * @return true if every bar of the symbol up to the date is in the cache, false otherwise.
+   */
+  public boolean isLoaded(String symbol, LocalDate date) {
+    if (entryOf(symbol) == null) {
+      return false;
+    }
+    SymbolCoverage symbolCoverage = coverage.get(symbol);
+    return symbolCoverage != null && symbolCoverage.covers(date);
+  }
+
+  /**
+   * Records that the full history of the symbol has been loaded up to the given date.
+   *
+   * @param symbol        The symbol of the stock.
+   * @param loadedThrough The date up to which the full history has been loaded.
+   * @param refreshTime   The time of the download, or null if the data did not come from the API.
+   */
+  public void markLoaded(String symbol, LocalDate loadedThrough, Instant refreshTime) {
+    flushPending(symbol);
+    Entry entry = stockDataCache.get(symbol);
+    if (entry == null) {
+      // evicted before the load finished, the next lookup loads it again
+      return;
+    }
+    PriceSeries series = entry.series;
+    LocalDate firstDate = null;
+    LocalDate lastDate = null;
+    if (series.size() > 0) {
+      firstDate = LocalDate.ofEpochDay(series.epochDayAt(0));
+      lastDate = LocalDate.ofEpochDay(series.epochDayAt(series.size() - 1));
+    }
+    coverage.put(symbol, new SymbolCoverage(firstDate, lastDate, loadedThrough, refreshTime));
+  }
+
+  /**
+   * Records that the source reported the symbol as invalid, so that lookups of it answer
+   * {@link Availability#INVALID_SYMBOL} instead of loading it again.
+   *
+   * @param symbol The symbol of the stock.
+   */
+  public void markInvalid(String symbol) {
+    invalidSymbols.add(symbol);
+  }
+
+  /**
+   * Fetches the coverage metadata of the symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @return The loaded date range and last refresh time of the symbol, or null if it has not been
+   *         loaded.
+   */
+  public SymbolCoverage getCoverage(String symbol) {
+    return coverage.get(symbol);
   }
 
   /**
-   * Saves the cache to a file.
+   * Getter for the hit, miss, eviction and load counters of the cache.
+   *
+   * @return The counters of the cache.
+   */
+  public CacheStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Getter for the number of bars currently held.
+   *
+   * @return The number of bars in the cache.
+   */
+  public long getBarCount() {
+    flushAllPending();
+    return totalBars.get();
+  }
+
+  /**
+   * Loads a symbol again from the last saved or loaded cache file, typically after it was
+   * evicted. The symbol is marked loaded through the date recorded in the file, or its newest bar
+   * in the file for a CSV file.
+   *
+   * @param symbol The symbol of the stock.
+   * @return true if the file held bars for the symbol, false otherwise.
+   */
+  public boolean reloadFromSnapshot(String symbol) {
+    if (snapshotPath == null || !snapshotSymbols.contains(symbol)) {
+      return false;
+    }
+    PriceSeries series;
+    try {
+      series = readSnapshot(Collections.singleton(symbol)).get(symbol);
+    } catch (IOException e) {
+      System.out.println("Error reading from file: " + e.getMessage());
+      return false;
+    }
+    if (series == null || series.size() == 0) {
+      return false;
+    }
+    putSeries(symbol, series);
+    markLoaded(symbol, snapshotLoadedThrough(symbol, series), null);
+    return true;
+  }
+
+  /**
+   * Saves the cache to a file. A path ending in {@code .csv} is written as CSV with a symbol
+   * column, any other path as a binary {@link PriceSnapshot}.
    *
    * @param filePath The path to the file where the cache is to be saved.
    */
   public void saveCacheToFile(String filePath) {
-    try (PrintWriter out = new PrintWriter(new FileWriter(filePath))) {
-      out.println("Symbol,Date,Open,High,Low,Close,Volume"); // CSV header
-      for (Map.Entry<String, Map<LocalDate, StockInfo>> entry : stockDataCache.entrySet()) {
-        String symbol = entry.getKey();
-        for (Map.Entry<LocalDate, StockInfo> dateEntry : entry.getValue().entrySet()) {
-          LocalDate date = dateEntry.getKey();
-          StockInfo info = dateEntry.getValue();
-          out.printf("%s,%s,%f,%f,%f,%f,%d%n", symbol, date, info.getOpen(), info.getHigh(),
-              info.getLow(), info.getClose(), info.getVolume());
+    flushAllPending();
+    Map<String, PriceSeries> saved = new HashMap<>();
+    Map<String, LocalDate> loadedThrough = new HashMap<>();
+    for (Map.Entry<String, Entry> entry : stockDataCache.entrySet()) {
+      saved.put(entry.getKey(), entry.getValue().series);
+      SymbolCoverage symbolCoverage = coverage.get(entry.getKey());
+      if (symbolCoverage != null) {
+        loadedThrough.put(entry.getKey(), symbolCoverage.getLoadedThrough());
+      }
+    }
+    // symbols evicted or not read since the last save or load are only in that file, keep them
+    PriceSnapshot previous = binarySnapshot;
+    boolean copyBlocks = previous != null && !isCsvPath(filePath);
+    Set<String> evicted = new HashSet<>(snapshotSymbols);
+    evicted.removeAll(saved.keySet());
+    if (snapshotPath != null && !evicted.isEmpty() && !copyBlocks) {
+      try {
+        Map<String, PriceSeries> carried = readSnapshot(evicted);
+        for (Map.Entry<String, PriceSeries> entry : carried.entrySet()) {
+          saved.put(entry.getKey(), entry.getValue());
+          loadedThrough.put(entry.getKey(),
+              snapshotLoadedThrough(entry.getKey(), entry.getValue()));
         }
+      } catch (IOException e) {
+        System.out.println("Error reading from file: " + e.getMessage());
       }
+    }
+
+    try {
+      if (isCsvPath(filePath)) {
+        writeCsv(filePath, saved);
+        binarySnapshot = null;
+      } else {
+        PriceSnapshot.write(Paths.get(filePath), saved, loadedThrough,
+            copyBlocks ? previous : null);
+        binarySnapshot = PriceSnapshot.open(Paths.get(filePath));
+      }
+      snapshotSymbols.clear();
+      snapshotSymbols.addAll(saved.keySet());
+      if (copyBlocks) {
+        snapshotSymbols.addAll(previous.getSymbols());
+      }
+      snapshotPath = filePath;
     } catch (IOException e) {
       e.printStackTrace();
     }
   }
 
   /**
-   * Loads the cache from a file.
+   * Loads the cache from a file written by {@link #saveCacheToFile}. Binary snapshots are
+   * recognised by their header and only their index is read, the bars of a symbol are decoded on
+   * its first lookup. Any other file is read in full as CSV with a symbol column.
    *
    * @param filePath The path to the file from which the cache is to be loaded.
    */
   public void loadCacheFromFile(String filePath) {
-    try (Scanner scanner = new Scanner(new File(filePath))) {
-      if (scanner.hasNextLine()) { // Skip header
-        scanner.nextLine();
+    flushAllPending();
+    try {
+      Path path = Paths.get(filePath);
+      if (!Files.exists(path)) {
+        throw new FileNotFoundException(filePath);
       }
-
-      while (scanner.hasNextLine()) {
-        String line = scanner.nextLine();
-        String[] parts = line.split(",");
-        String symbol = parts[0];
-        LocalDate date = LocalDate.parse(parts[1]);
-        BigDecimal open = new BigDecimal(parts[2]);
-        BigDecimal high = new BigDecimal(parts[3]);
-        BigDecimal low = new BigDecimal(parts[4]);
-        BigDecimal close = new BigDecimal(parts[5]);
-        long volume = Long.parseLong(parts[6]);
-
-        StockInfo stockInfo = new StockInfo(date, open, high, low, close, volume);
-        addStockData(symbol, date, stockInfo);
+      if (PriceSnapshot.isSnapshot(path)) {
+        PriceSnapshot snapshot = PriceSnapshot.open(path);
+        snapshotSymbols.clear();
+        snapshotSymbols.addAll(snapshot.getSymbols());
+        binarySnapshot = snapshot;
+        snapshotPath = filePath;
+        // symbols already in memory take the bars of the file now, the rest fault in on demand
+        for (String symbol : stockDataCache.keySet()) {
+          if (snapshot.contains(symbol)) {
+            putSeries(symbol, snapshot.read(symbol));
+          }
+        }
+        return;
+      }
+      Map<String, PriceSeries> loaded = readCsv(filePath, null);
+      snapshotSymbols.clear();
+      snapshotSymbols.addAll(loaded.keySet());
+      binarySnapshot = null;
+      snapshotPath = filePath;
+      for (Map.Entry<String, PriceSeries> entry : loaded.entrySet()) {
+        putSeries(entry.getKey(), entry.getValue());
+        PriceSeries series = seriesOf(entry.getKey());
+        if (!coverage.containsKey(entry.getKey()) && series != null && series.size() > 0) {
+          markLoaded(entry.getKey(), snapshotLoadedThrough(entry.getKey(), entry.getValue()),
+              null);
+        }
       }
     } catch (FileNotFoundException e) {
       System.out.println("File not found: " + filePath);
@@ -108,4 +540,187 @@ public class StockDataCache {
     }
   }
 
+  /**
+   * Reads the bars of the given symbols from the last saved or loaded cache file.
+   */
+  private Map<String, PriceSeries> readSnapshot(Set<String> symbols) throws IOException {
+    PriceSnapshot snapshot = binarySnapshot;
+    if (snapshot == null) {
+      return readCsv(snapshotPath, symbols);
+    }
+    Map<String, PriceSeries> read = new HashMap<>();
+    for (String symbol : symbols) {
+      PriceSeries series = snapshot.read(symbol);
+      if (series != null) {
+        read.put(symbol, series);
+      }
+    }
+    return read;
+  }
+
+  /**
+   * Gives the date up to which a symbol read from the cache file is complete. CSV files do not
+   * record it, their symbols were written from full downloads so they are complete up to their
+   * newest bar.
+   */
+  private LocalDate snapshotLoadedThrough(String symbol, PriceSeries series) {
+    PriceSnapshot snapshot = binarySnapshot;
+    LocalDate loadedThrough = snapshot == null ? null : snapshot.getLoadedThrough(symbol);
+    if (loadedThrough == null && series.size() > 0) {
+      loadedThrough = LocalDate.ofEpochDay(series.epochDayAt(series.size() - 1));
+    }
+    return loadedThrough;
+  }
+
+  private static boolean isCsvPath(String filePath) {
+    return filePath.toLowerCase().endsWith(".csv");
+  }
+
+  private static void writeCsv(String filePath, Map<String, PriceSeries> saved)
+      throws IOException {
+    try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(filePath)))) {
+      out.println("Symbol,Date,Open,High,Low,Close,Volume"); // CSV header
+      for (Map.Entry<String, PriceSeries> entry : saved.entrySet()) {
+        String symbol = entry.getKey();
+        PriceSeries series = entry.getValue();
+        for (int i = 0; i < series.size(); i++) {
+          // plain decimals keep the exact price, unlike %f which rounds and follows the locale
+          out.print(symbol + "," + LocalDate.ofEpochDay(series.epochDayAt(i)) + ","
+              + PriceSeries.toBigDecimal(series.openAt(i)).toPlainString() + ","
+              + PriceSeries.toBigDecimal(series.highAt(i)).toPlainString() + ","
+              + PriceSeries.toBigDecimal(series.lowAt(i)).toPlainString() + ","
+              + PriceSeries.toBigDecimal(series.closeAt(i)).toPlainString() + ","
+              + series.volumeAt(i) + "\n");
+        }
+      }
+      if (out.checkError()) {
+        throw new IOException("Error writing to file: " + filePath);
+      }
+    }
+  }
+
+  /**
+   * Reads the bars of the given symbols from a CSV cache file.
+   *
+   * @param symbols The symbols to read, or null for all of them.
+   */
+  private static Map<String, PriceSeries> readCsv(String path, Set<String> symbols)
+      throws IOException {
+    Map<String, PriceSeries> read = new HashMap<>();
+    try (InputStream in = new FileInputStream(path)) {
+      new DailyBarCsvParser(true).parse(in,
+          (symbol, epochDay, open, high, low, close, volume) -> {
+            if (symbols == null || symbols.contains(symbol)) {
+              read.computeIfAbsent(symbol, k -> new PriceSeries())
+                  .add(epochDay, open, high, low, close, volume);
+            }
+          });
+    }
+    return read;
+  }
+
+  /**
+   * Fetches the entry of a symbol, decoding it from the mapped cache file if it is not in memory.
+   */
+  private Entry entryOf(String symbol) {
+    flushPending(symbol);
+    Entry entry = stockDataCache.get(symbol);
+    PriceSnapshot snapshot = binarySnapshot;
+    if (entry != null || snapshot == null || !snapshot.contains(symbol)) {
+      return entry;
+    }
+    long start = System.nanoTime();
+    PriceSeries series = snapshot.read(symbol);
+    putSeries(symbol, series);
+    if (!coverage.containsKey(symbol)) {
+      markLoaded(symbol, snapshotLoadedThrough(symbol, series), null);
+    }
+    stats.recordLoad(System.nanoTime() - start);
+    return stockDataCache.get(symbol);
+  }
+
+  /**
+   * Fetches the series of a symbol and records the access for the eviction policy.
+   */
+  private PriceSeries seriesOf(String symbol) {
+    Entry entry = entryOf(symbol);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastAccess = clock.incrementAndGet();
+    sketch.recordAccess(symbol);
+    return entry.series;
+  }
+
+  /**
+   * Evicts symbols until the cache is within its budget again.
+   *
+   * @param keep The symbol that was just added, it is not evicted.
+   */
+  private void evictIfNeeded(String keep) {
+    if (totalBars.get() <= maxBars) {
+      return;
+    }
+    synchronized (evictionLock) {
+      while (totalBars.get() > maxBars) {
+        String victim = selectVictim(keep);
+        if (victim == null) {
+          return;
+        }
+        Entry removed = stockDataCache.remove(victim);
+        if (removed != null) {
+          coverage.remove(victim);
+          totalBars.addAndGet(-removed.series.size());
+          stats.recordEviction();
+        }
+      }
+    }
+  }
+
+  /**
+   * Picks the least frequently used symbol among the {@link #EVICTION_SAMPLE} least recently used
+   * ones.
+   */
+  private String selectVictim(String keep) {
+    // max-heap on access time, so it holds the least recently used symbols seen so far
+    PriorityQueue<Map.Entry<String, Entry>> oldest = new PriorityQueue<>(EVICTION_SAMPLE,
+        (a, b) -> Long.compare(b.getValue().lastAccess, a.getValue().lastAccess));
+    for (Map.Entry<String, Entry> entry : stockDataCache.entrySet()) {
+      if (entry.getKey().equals(keep)) {
+        continue;
+      }
+      oldest.add(entry);
+      if (oldest.size() > EVICTION_SAMPLE) {
+        oldest.poll();
+      }
+    }
+    String victim = null;
+    int victimFrequency = Integer.MAX_VALUE;
+    long victimAccess = Long.MAX_VALUE;
+    for (Map.Entry<String, Entry> entry : oldest) {
+      int frequency = sketch.frequency(entry.getKey());
+      long access = entry.getValue().lastAccess;
+      if (frequency < victimFrequency
+          || (frequency == victimFrequency && access < victimAccess)) {
+        victim = entry.getKey();
+        victimFrequency = frequency;
+        victimAccess = access;
+      }
+    }
+    return victim;
+  }
+
+  /**
+   * A cached series with the time of its last access.
+   */
+  private static final class Entry {
+
+    private final PriceSeries series;
+    private volatile long lastAccess;
+
+    private Entry(PriceSeries series, long lastAccess) {
+      this.series = series;
+      this.lastAccess = lastAccess;
+    }
+  }
 }
@@ -0,0 +1,92 @@
+package model.utilities;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Class to represent how much of the price history of a symbol has been loaded into the cache. The
+ * full history is loaded up to {@link #getLoadedThrough()}, so any date on or before it that has no
+ * bar is a known non-trading day (a weekend, a holiday or a date before the stock was listed) and
+ * not something that a new download could fill in.
+ */
+public class SymbolCoverage {
+
+  private final LocalDate firstDate;
+  private final LocalDate lastDate;
+  private final LocalDate loadedThrough;
+  private final Instant lastRefresh;
+
+  /**
+   * Constructor for the SymbolCoverage class.
+   *
+   * @param firstDate     The date of the oldest bar in the cache, or null if there is none.
+   * @param lastDate      The date of the newest bar in the cache, or null if there is none.
+   * @param loadedThrough The date up to which the full history has been loaded.
+   * @param lastRefresh   The time of the last download of the symbol, or null if the data was not
+   *                      downloaded in this session.
+   */
+  public SymbolCoverage(LocalDate firstDate, LocalDate lastDate, LocalDate loadedThrough,
+      Instant lastRefresh) {
+    this.firstDate = firstDate;
+    this.lastDate = lastDate;
+    this.loadedThrough = loadedThrough;
+    this.lastRefresh = lastRefresh;
+  }
+
+  /**
+   * Getter for the date of the oldest bar in the cache.
+   *
+   * @return The date of the oldest bar, or null if there is none.
+   */
+  public LocalDate getFirstDate() {
+    return firstDate;
+  }
+
+  /**
+   * Getter for the date of the newest bar in the cache.
+   *
+   * @return The date of the newest bar, or null if there is none.
+   */
+  public LocalDate getLastDate() {
+    return lastDate;
+  }
+
+  /**
+   * Getter for the date up to which the full history has been loaded.
+   *
+   * @return The date up to which the full history has been loaded.
+   */
+  public LocalDate getLoadedThrough() {
+    return loadedThrough;
+  }
+
+  /**
+   * Getter for the time of the last download of the symbol.
+   *
+   * @return The time of the last download, or null if the data was not downloaded in this session.
+   */
+  public Instant getLastRefresh() {
+    return lastRefresh;
+  }
+
+  /**
+   * Checks if the given date lies within the loaded history.
+   *
+   * @param date The date to check.
+   * @return true if every bar up to and including the date has been loaded, false otherwise.
+   */
+  public boolean covers(LocalDate date) {
+    return !date.isAfter(loadedThrough);
+  }
+
+  /**
+   * Returns a string representation of the coverage for debugging purposes.
+   *
+   * @return A string representation of the coverage.
+   */
+  @Override
+  public String toString() {
+    return String.format("First: %s, Last: %s, Loaded through: %s, Last refresh: %s",
+        firstDate, lastDate, loadedThrough, lastRefresh);
+  }
+}
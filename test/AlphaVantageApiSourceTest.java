@@ -0,0 +1,418 @@
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import controller.Payload;
+import model.api.AlphaVantageApiSource;
+import model.api.RequestScheduler;
+import model.api.SymbolDirectory;
+import model.service.StockService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the AlphaVantageApiSource class, run against a local stand-in of the API that
+ * serves canned responses.
+ */
+public class AlphaVantageApiSourceTest {
+
+  private static final String DAILY_CSV = "timestamp,open,high,low,close,volume\r\n"
+      + "2024-06-28,215.7700,216.0700,210.3000,210.6200,82542718\r\n"
+      + "2024-06-27,214.6900,215.7395,212.3500,214.1000,49772707\r\n"
+      + "2024-06-26,211.5000,214.8600,210.6400,213.2500,66213186\r\n";
+
+  private static final String AAPL_MATCHES = "{\n    \"bestMatches\": [\n        {\n"
+      + "            \"1. symbol\": \"AAPL\",\n"
+      + "            \"2. name\": \"Apple Inc\"\n        },\n        {\n"
+      + "            \"1. symbol\": \"AAPL34.SAO\",\n"
+      + "            \"2. name\": \"Apple Inc\"\n        }\n    ]\n}";
+
+  private static final String NO_MATCHES = "{\n    \"bestMatches\": []\n}";
+
+  private static final String ERROR_JSON = "{\n    \"Error Message\": \"Invalid API call.\"\n}";
+
+  private static final String PREMIUM_NOTICE = "{\n    \"Information\": \"Thank you for using"
+      + " Alpha Vantage! The **outputsize=full** parameter value is a premium feature for the"
+      + " TIME_SERIES_DAILY endpoint.\"\n}";
+
+  private HttpServer server;
+  private AlphaVantageApiSource source;
+  private final List<String> queries = new CopyOnWriteArrayList<>();
+  private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+
+  /**
+   * Starts the stand-in server and a source that sends its requests to it.
+   *
+   * @throws IOException if the server cannot be started.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/query", exchange -> {
+      String query = exchange.getRequestURI().getRawQuery();
+      String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      queries.add(query);
+      acceptEncodings.add(String.valueOf(encoding));
+
+      String body;
+      if (query.contains("keywords=AAPL&")) {
+        body = AAPL_MATCHES;
+      } else if (query.contains("keywords=APPL&") || query.contains("keywords=AAP&")) {
+        body = query.contains("keywords=AAP&") ? AAPL_MATCHES : NO_MATCHES;
+      } else if (query.contains("symbol=AAPL&")) {
+        body = DAILY_CSV;
+      } else if (query.contains("symbol=PREM&")) {
+        body = PREMIUM_NOTICE;
+      } else {
+        body = ERROR_JSON;
+      }
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      if (encoding != null && encoding.contains("gzip")) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+          gzip.write(bytes);
+        }
+        bytes = compressed.toByteArray();
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      }
+      exchange.sendResponseHeaders(200, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    });
+    server.start();
+
+    URI baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/query");
+    source = new AlphaVantageApiSource("test-key", new RequestScheduler(1000, 1000), baseUri,
+        Duration.ofSeconds(5), Duration.ofSeconds(5));
+  }
+
+  /**
+   * Stops the stand-in server.
+   */
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  /**
+   * Tests that the daily series is requested in full, compressed, and streamed back as CSV.
+   *
+   * @throws IOException if the request fails.
+   */
+  @Test
+  public void testOpenDataStreamDecompressesResponse() throws IOException {
+    String csv;
+    try (InputStream stream = source.openDataStream("AAPL")) {
+      csv = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    assertEquals(DAILY_CSV, csv);
+    assertTrue(queries.get(0).contains("function=TIME_SERIES_DAILY"));
+    assertTrue(queries.get(0).contains("outputsize=full"));
+    assertTrue(queries.get(0).contains("apikey=test-key"));
+    assertEquals("gzip", acceptEncodings.get(0));
+  }
+
+  /**
+   * Tests that the recent series is requested with the compact output size.
+   *
+   * @throws IOException if the request fails.
+   */
+  @Test
+  public void testOpenRecentDataStreamRequestsCompactSeries() throws IOException {
+    try (InputStream stream = source.openRecentDataStream("AAPL")) {
+      assertEquals(DAILY_CSV, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertTrue(queries.get(0).contains("outputsize=compact"));
+  }
+
+  /**
+   * Tests that an error response for an unknown symbol is reported as an invalid symbol.
+   *
+   * @throws IOException if the request fails.
+   */
+  @Test
+  public void testOpenDataStreamRejectsInvalidSymbol() throws IOException {
+    try {
+      source.openDataStream("NOPE");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid stock symbol: NOPE", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests that a notice other than a rate limit one fails the request at once instead of being
+   * retried as throttling.
+   */
+  @Test
+  public void testPremiumNoticeIsNotRetried() {
+    long start = System.nanoTime();
+    try {
+      source.openDataStream("PREM");
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("premium feature"));
+    }
+    assertEquals(1, queries.stream().filter(query -> query.contains("symbol=PREM&")).count());
+    // the first retry would only be sent after a backoff of two seconds
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+  }
+
+  /**
+   * Tests symbol validation against the search endpoint.
+   */
+  @Test
+  public void testIsValidSymbol() {
+    assertTrue(source.isValidSymbol("AAPL"));
+    assertFalse(source.isValidSymbol("NOPE"));
+  }
+
+  /**
+   * Tests that a search finding no listing, or only listings of other symbols, records the symbol
+   * as invalid, so it is not searched for again.
+   */
+  @Test
+  public void testSearchWithoutExactMatchIsInvalid() {
+    SymbolDirectory directory = new SymbolDirectory();
+    URI baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/query");
+    AlphaVantageApiSource searching = new AlphaVantageApiSource("test-key",
+        new RequestScheduler(1000, 1000), baseUri, Duration.ofSeconds(5), Duration.ofSeconds(5),
+        directory);
+    assertFalse(searching.isValidSymbol("APPL"));
+    assertFalse(searching.isValidSymbol("AAP"));
+    assertEquals(Boolean.FALSE, directory.lookup("APPL"));
+    assertEquals(Boolean.FALSE, directory.lookup("AAP"));
+
+    assertFalse(searching.isValidSymbol("appl"));
+    assertEquals("Invalid stock symbol: APPL", searching.fetchData("APPL"));
+    assertEquals(2, queries.size());
+  }
+
+  /**
+   * Tests that fetchData returns the decompressed body.
+   */
+  @Test
+  public void testFetchData() {
+    assertEquals(DAILY_CSV, source.fetchData("AAPL"));
+    assertEquals("Invalid stock symbol: NOPE", source.fetchData("NOPE"));
+  }
+
+  /**
+   * Tests a price lookup through the StockService, parsing the streamed response into the cache.
+   */
+  @Test
+  public void testStockServiceReadsFromSource() {
+    StockService stockService = new StockService(source);
+    Payload price = stockService.fetchPriceOnDate("AAPL", LocalDate.of(2024, 6, 27));
+    assertEquals(0, new BigDecimal("214.1000").compareTo((BigDecimal) price.getData()));
+    assertEquals(1, queries.size());
+  }
+
+  /**
+   * Tests that the StockService validates a symbol it has no data for by loading its history,
+   * which the price lookups then use, and never with a symbol search.
+   */
+  @Test
+  public void testStockServiceValidatesByLoading() {
+    StockService stockService = new StockService(source);
+    assertEquals("Invalid stock symbol: NOPE", stockService.validateSymbol("NOPE").getMessage());
+    assertFalse(stockService.validateSymbol("AAPL").isError());
+    Payload price = stockService.fetchPriceOnDate("AAPL", LocalDate.of(2024, 6, 27));
+    assertEquals(0, new BigDecimal("214.1000").compareTo((BigDecimal) price.getData()));
+    assertTrue(stockService.validateSymbol("NOPE").isError());
+
+    assertEquals(2, queries.size());
+    assertTrue(queries.stream().allMatch(query -> query.contains("function=TIME_SERIES_DAILY")));
+  }
+
+  /**
+   * Tests that a symbol the API reported as invalid is rejected without another request.
+   *
+   * @throws IOException if the request fails.
+   */
+  @Test
+  public void testInvalidSymbolIsNotRequestedAgain() throws IOException {
+    assertEquals("Invalid stock symbol: NOPE", source.fetchData("NOPE"));
+    try {
+      source.openDataStream("NOPE");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid stock symbol: NOPE", e.getMessage());
+    }
+    assertFalse(source.isValidSymbol("nope"));
+    assertEquals(1, queries.size());
+  }
+
+  /**
+   * Tests that the symbols validated by the API are kept in the directory file and answered from
+   * it by a new source.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  @Test
+  public void testSymbolDirectoryIsPersisted() throws IOException {
+    Path file = Files.createTempFile("symbols", ".csv");
+    try {
+      URI baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/query");
+      AlphaVantageApiSource first = new AlphaVantageApiSource("test-key",
+          new RequestScheduler(1000, 1000), baseUri, Duration.ofSeconds(5), Duration.ofSeconds(5),
+          new SymbolDirectory(file));
+      assertTrue(first.isValidSymbol("AAPL"));
+      assertFalse(first.isValidSymbol("NOPE"));
+      assertEquals(2, queries.size());
+
+      SymbolDirectory directory = new SymbolDirectory(file);
+      AlphaVantageApiSource second = new AlphaVantageApiSource("test-key",
+          new RequestScheduler(1000, 1000), baseUri, Duration.ofSeconds(5), Duration.ofSeconds(5),
+          directory);
+      assertTrue(second.isValidSymbol("AAPL"));
+      assertFalse(second.isValidSymbol("NOPE"));
+      assertEquals(2, queries.size());
+      assertEquals(List.of("AAPL"), directory.findByPrefix("a", 10));
+      assertNull(directory.lookup("MSFT"));
+
+      // changes are appended, and the replaced lines are dropped when the file is read again
+      directory.record("NOPE", true);
+      assertEquals(3, Files.readAllLines(file).size());
+      assertTrue(new SymbolDirectory(file).lookup("NOPE"));
+      assertEquals(2, Files.readAllLines(file).size());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Tests that a response whose body does not start arriving is given up once the read timeout is
+   * over and retried, instead of blocking the load.
+   *
+   * @throws Exception if the stand-in server cannot be started or the wait is interrupted.
+   */
+  @Test
+  public void testStalledBodyTimesOut() throws Exception {
+    CountDownLatch attempts = new CountDownLatch(2);
+    ExecutorService handlers = Executors.newCachedThreadPool();
+    HttpServer stalledServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    stalledServer.setExecutor(handlers);
+    stalledServer.createContext("/query", exchange -> {
+      attempts.countDown();
+      byte[] bytes = DAILY_CSV.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, bytes.length);
+      exchange.getResponseBody().flush();
+      try {
+        Thread.sleep(30000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    stalledServer.start();
+    try {
+      URI baseUri = URI.create("http://127.0.0.1:" + stalledServer.getAddress().getPort()
+          + "/query");
+      AlphaVantageApiSource stalled = new AlphaVantageApiSource("test-key",
+          new RequestScheduler(1000, 1000), baseUri, Duration.ofSeconds(5),
+          Duration.ofMillis(500));
+      CompletableFuture.runAsync(() -> {
+        try {
+          stalled.openDataStream("AAPL").close();
+        } catch (IOException e) {
+          // the server never finishes a response
+        }
+      });
+      // the first attempt stalls for longer than this, only a timeout lets the retry through
+      assertTrue(attempts.await(10, TimeUnit.SECONDS));
+    } finally {
+      stalledServer.stop(0);
+      handlers.shutdownNow();
+    }
+  }
+
+  /**
+   * Tests that a large body is handed over while it is still arriving, and that a read of it fails
+   * with a timeout once the read timeout is over instead of blocking or ending early.
+   *
+   * @throws Exception if the stand-in server cannot be started or the wait is interrupted.
+   */
+  @Test
+  public void testSlowBodyIsStreamedAndTimesOut() throws Exception {
+    byte[] row = "2024-06-28,215.7700,216.0700,210.3000,210.6200,82542718\r\n"
+        .getBytes(StandardCharsets.UTF_8);
+    int rows = 20000;
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService handlers = Executors.newCachedThreadPool();
+    HttpServer slowServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    slowServer.setExecutor(handlers);
+    slowServer.createContext("/query", exchange -> {
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream out = exchange.getResponseBody();
+      out.write("timestamp,open,high,low,close,volume\r\n".getBytes(StandardCharsets.UTF_8));
+      for (int i = 0; i < rows; i++) {
+        out.write(row);
+      }
+      out.flush();
+      try {
+        release.await(30, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    slowServer.start();
+    try {
+      URI baseUri = URI.create("http://127.0.0.1:" + slowServer.getAddress().getPort()
+          + "/query");
+      AlphaVantageApiSource slow = new AlphaVantageApiSource("test-key",
+          new RequestScheduler(1000, 1000), baseUri, Duration.ofSeconds(5),
+          Duration.ofSeconds(2));
+      long start = System.nanoTime();
+      long read = 0;
+      // the body is not complete yet, so only a streamed response is handed over
+      try (InputStream stream = slow.openDataStream("AAPL")) {
+        byte[] buffer = new byte[8192];
+        try {
+          for (int n = stream.read(buffer); n >= 0; n = stream.read(buffer)) {
+            read += n;
+          }
+          fail("Expected an HttpTimeoutException");
+        } catch (HttpTimeoutException e) {
+          // the server never finishes the body
+        }
+      }
+      assertTrue(read >= (long) rows * row.length);
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    } finally {
+      release.countDown();
+      slowServer.stop(0);
+      handlers.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import mock.MockApiSource;
+import model.analysis.CrossoverScanner;
+import model.service.StockService;
+import model.utilities.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the crossover scan, on hand-built series of trading days with weekends between
+ * them.
+ */
+public class CrossoverScannerTest {
+
+  private static final long[] AAA = {10, 10, 10, 9, 8, 12, 13, 9, 10, 11, 11, 7, 8, 14, 15, 13};
+
+  private static final long[] BBB = {20, 21, 22, 23, 24, 25, 20, 19, 26, 27, 28, 22, 21, 30, 31,
+      32};
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+  private static final LocalDate LAST_DAY = LocalDate.of(2024, 1, 22);
+
+  /**
+   * The trading days of the series, the weekdays from Monday 1 January 2024.
+   */
+  private static LocalDate[] tradingDays(int count) {
+    LocalDate[] days = new LocalDate[count];
+    LocalDate date = FIRST_DAY;
+    for (int i = 0; i < count; date = date.plusDays(1)) {
+      if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        days[i++] = date;
+      }
+    }
+    return days;
+  }
+
+  private static PriceSeries series(long[] closes) {
+    PriceSeries series = new PriceSeries();
+    LocalDate[] days = tradingDays(closes.length);
+    for (int i = 0; i < closes.length; i++) {
+      long close = closes[i] * 10_000;
+      series.add((int) days[i].toEpochDay(), close, close, close, close, 1000);
+    }
+    return series;
+  }
+
+  private static String csv(long[] closes) {
+    StringBuilder csv = new StringBuilder("timestamp,open,high,low,close,volume\r\n");
+    LocalDate[] days = tradingDays(closes.length);
+    for (int i = closes.length - 1; i >= 0; i--) {
+      csv.append(days[i]).append(',').append(closes[i]).append(',').append(closes[i]).append(',')
+          .append(closes[i]).append(',').append(closes[i]).append(",1000\r\n");
+    }
+    return csv.toString();
+  }
+
+  private static List<LocalDate> dates(String... dates) {
+    return Arrays.stream(dates).map(LocalDate::parse).collect(Collectors.toList());
+  }
+
+  /**
+   * Tests that the averages are taken over trading days and the previous close is the close of the
+   * previous trading day, so a crossover on a Monday compares with the Friday before.
+   */
+  @Test
+  public void testScanUsesTradingDays() {
+    assertEquals(dates("2024-01-08", "2024-01-12", "2024-01-18"),
+        new CrossoverScanner(3).scan(series(AAA), FIRST_DAY, LAST_DAY));
+  }
+
+  /**
+   * Tests that the previous close and average are taken from before the range when the range
+   * starts within the history, and that days without a full window are skipped.
+   */
+  @Test
+  public void testScanRangeBounds() {
+    CrossoverScanner scanner = new CrossoverScanner(3);
+    assertEquals(dates("2024-01-12", "2024-01-18"),
+        scanner.scan(series(AAA), LocalDate.of(2024, 1, 9), LAST_DAY));
+    assertEquals(dates("2024-01-08", "2024-01-12"),
+        scanner.scan(series(AAA), FIRST_DAY, LocalDate.of(2024, 1, 12)));
+    assertEquals(dates(), new CrossoverScanner(16).scan(series(AAA), FIRST_DAY, LAST_DAY));
+    assertEquals(dates(), scanner.scan(null, FIRST_DAY, LAST_DAY));
+  }
+
+  /**
+   * Tests that a longer window drops a crossover that the close only makes over the shorter one.
+   */
+  @Test
+  public void testScanWindow() {
+    assertEquals(dates("2024-01-08", "2024-01-18"),
+        new CrossoverScanner(5).scan(series(AAA), FIRST_DAY, LAST_DAY));
+    try {
+      new CrossoverScanner(0);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Moving average window should be greater than 0", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests the StockService scans with a given window, for one symbol and for several.
+   */
+  @Test
+  public void testStockServiceScans() {
+    MockApiSource source = new MockApiSource();
+    source.put("AAA", csv(AAA));
+    source.put("BBB", csv(BBB));
+    StockService stockService = new StockService(source);
+
+    assertEquals(dates("2024-01-08", "2024-01-12", "2024-01-18"),
+        stockService.findCrossoverDays("AAA", FIRST_DAY, LAST_DAY, 3));
+    assertEquals(dates("2024-01-08", "2024-01-18"),
+        stockService.findCrossoverDays("AAA", FIRST_DAY, LAST_DAY, 5));
+
+    Map<String, List<LocalDate>> expected = new LinkedHashMap<>();
+    expected.put("BBB", dates("2024-01-11", "2024-01-18"));
+    expected.put("AAA", dates("2024-01-08", "2024-01-18"));
+    Map<String, List<LocalDate>> crossovers = stockService.findCrossoverDays(
+        Arrays.asList("BBB", "AAA"), FIRST_DAY, LAST_DAY, 5);
+    assertEquals(expected, crossovers);
+    assertEquals(Arrays.asList("BBB", "AAA"), List.copyOf(crossovers.keySet()));
+    assertEquals(2, source.getDownloadCount());
+
+    try {
+      stockService.findCrossoverDays(Arrays.asList("AAA", "NOPE"), FIRST_DAY, LAST_DAY, 5);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid stock symbol: NOPE", e.getMessage());
+    }
+  }
+}
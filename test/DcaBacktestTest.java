@@ -0,0 +1,125 @@
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import mock.MockStockService;
+import model.Portfolio;
+import model.Tradable;
+import model.analysis.DcaBacktest;
+import model.analysis.DcaStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the dollar cost averaging backtests, run on the prices of the MockStockService.
+ */
+public class DcaBacktestTest {
+
+  private static final BigDecimal AMOUNT = new BigDecimal("1000");
+
+  private final MockStockService stockService = new MockStockService();
+
+  private static Map<String, Float> weights(Object... symbolsAndWeights) {
+    Map<String, Float> weights = new LinkedHashMap<>();
+    for (int i = 0; i < symbolsAndWeights.length; i += 2) {
+      weights.put((String) symbolsAndWeights[i], (Float) symbolsAndWeights[i + 1]);
+    }
+    return weights;
+  }
+
+  private static DcaStrategy strategy(String name, String startDate, String endDate,
+      int frequency, Map<String, Float> weights) {
+    return new DcaStrategy(name, AMOUNT, LocalDate.parse(startDate), LocalDate.parse(endDate),
+        frequency, weights);
+  }
+
+  /**
+   * Tests that the strategies are ranked by return and that a strategy without prices is listed
+   * last with its failure instead of failing the comparison.
+   */
+  @Test
+  public void testCompareRanksByReturn() {
+    Map<String, Float> apple = weights("AAPL", 100f);
+    List<DcaBacktest> backtests = stockService.compareDcaStrategies(List.of(
+        strategy("early", "2024-02-01", "2024-02-08", 1, apple),
+        strategy("missing", "2024-01-20", "2024-02-08", 1, apple),
+        strategy("late", "2024-02-04", "2024-02-08", 1, apple),
+        strategy("short", "2024-02-02", "2024-02-03", 1, apple)));
+
+    assertEquals(List.of("short", "late", "early", "missing"), backtests.stream()
+        .map(backtest -> backtest.getStrategy().getName()).collect(Collectors.toList()));
+    // bought at 154 and worth 156 the next day, bought at 151 and still worth 151, bought higher
+    assertTrue(backtests.get(0).getReturn().signum() > 0);
+    assertEquals(0, backtests.get(1).getReturn().signum());
+    assertTrue(backtests.get(2).getReturn().signum() < 0);
+    assertFalse(backtests.get(2).isFailed());
+    assertTrue(backtests.get(3).isFailed());
+    assertEquals("No price for AAPL on 2024-01-20", backtests.get(3).getFailure());
+  }
+
+  /**
+   * Tests that a backtest ends with the positions, investment and value of a portfolio that made
+   * the same investments.
+   */
+  @Test
+  public void testBacktestMatchesPortfolio() {
+    DcaStrategy[] strategies = {
+        strategy("daily", "2024-02-01", "2024-02-08", 1, weights("AAPL", 100f)),
+        strategy("weekly", "2024-02-01", "2024-02-08", 2, weights("AAPL", 100f)),
+        strategy("gap", "2024-02-05", "2024-02-07", 1, weights("AAPL", 100f)),
+    };
+    for (DcaStrategy strategy : strategies) {
+      DcaBacktest backtest = stockService.compareDcaStrategies(List.of(strategy)).get(0);
+      Portfolio portfolio = new Portfolio(strategy.getName());
+      portfolio.dollarCostAveraging(strategy.getAmount(), strategy.getStartDate(),
+          strategy.getEndDate(), stockService, strategy.getFrequency(),
+          strategy.getStockWeights());
+
+      LocalDate endDate = strategy.getEndDate();
+      assertFalse(backtest.isFailed());
+      assertEquals(portfolio.getStocks().size(), backtest.getPositions().size());
+      for (Tradable stock : portfolio.getStocks()) {
+        assertEquals(strategy.getName(), stock.getExactQuantity(endDate),
+            backtest.getPositions().get(stock.getSymbol()));
+      }
+      assertEquals(strategy.getName(), 0,
+          portfolio.calculateInvestment(endDate).compareTo(backtest.getInvestment()));
+      assertEquals(strategy.getName(), 0,
+          portfolio.calculateValue(stockService, endDate).compareTo(backtest.getFinalValue()));
+    }
+  }
+
+  /**
+   * Tests that a backtest fails with the message a portfolio fails with, on the earliest purchase
+   * without a price.
+   */
+  @Test
+  public void testBacktestFailsLikePortfolio() {
+    DcaStrategy[] strategies = {
+        strategy("before listing", "2024-01-20", "2024-02-08", 1, weights("AAPL", 100f)),
+        strategy("unknown symbol", "2024-02-01", "2024-02-08", 1,
+            weights("AAPL", 50f, "MSFT", 50f)),
+    };
+    for (DcaStrategy strategy : strategies) {
+      DcaBacktest backtest = stockService.compareDcaStrategies(List.of(strategy)).get(0);
+      Portfolio portfolio = new Portfolio(strategy.getName());
+      try {
+        portfolio.dollarCostAveraging(strategy.getAmount(), strategy.getStartDate(),
+            strategy.getEndDate(), stockService, strategy.getFrequency(),
+            strategy.getStockWeights());
+        fail("Expected an IllegalArgumentException for " + strategy.getName());
+      } catch (IllegalArgumentException e) {
+        assertTrue(backtest.isFailed());
+        assertEquals(e.getMessage(), backtest.getFailure());
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import model.utilities.Money;
+import model.utilities.Quantity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the Money and Quantity classes and the fixed-point arithmetic behind them,
+ * checked against the same operations on BigDecimal.
+ */
+public class MoneyQuantityTest {
+
+  private static final long[] SMALL_UNITS = {-7, -6, -5, -3, -2, -1, 0, 1, 2, 3, 5, 6, 7};
+
+  private static final long[] SMALL_DIVISORS = {2, 3, 4, 10};
+
+  /**
+   * Computes {@code a * b / divisor} with BigDecimal, the result the fixed-point arithmetic should
+   * give.
+   */
+  private static long expected(long a, long b, long divisor, RoundingMode rounding) {
+    return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+        .divide(BigDecimal.valueOf(divisor), 0, rounding).longValueExact();
+  }
+
+  /**
+   * Tests that fractions of positive and negative amounts round like BigDecimal in every rounding
+   * mode, ties included.
+   */
+  @Test
+  public void testFractionRoundsLikeBigDecimal() {
+    for (RoundingMode rounding : RoundingMode.values()) {
+      if (rounding == RoundingMode.UNNECESSARY) {
+        continue;
+      }
+      for (long units : SMALL_UNITS) {
+        for (long divisor : SMALL_DIVISORS) {
+          assertEquals(rounding + " " + units + "/" + divisor,
+              expected(units, 1, divisor, rounding),
+              Money.ofUnits(units).fraction(1, divisor, rounding).getUnits());
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests the rounding of a quotient of amounts with negative dividends and divisors.
+   */
+  @Test
+  public void testDivideRoundsNegativeOperands() {
+    long one = Quantity.of(1).getUnits();
+    for (RoundingMode rounding : RoundingMode.values()) {
+      if (rounding == RoundingMode.UNNECESSARY) {
+        continue;
+      }
+      for (long units : SMALL_UNITS) {
+        for (long price : new long[] {-30_000_000, -7, 7, 30_000_000}) {
+          assertEquals(rounding + " " + units + "/" + price, expected(units, one, price, rounding),
+              Money.ofUnits(units).divide(Money.ofUnits(price), rounding).getUnits());
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that UNNECESSARY rounding passes exact results through and rejects inexact ones.
+   */
+  @Test
+  public void testUnnecessaryRounding() {
+    assertEquals(-3, Money.ofUnits(-6).fraction(1, 2, RoundingMode.UNNECESSARY).getUnits());
+    try {
+      Money.ofUnits(-5).fraction(1, 2, RoundingMode.UNNECESSARY);
+      fail("Expected an ArithmeticException");
+    } catch (ArithmeticException e) {
+      assertEquals("Rounding necessary", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests products that overflow a long before the division, which are computed with BigInteger,
+   * in every rounding mode and with both signs.
+   */
+  @Test
+  public void testProductBeyondLongIsExact() {
+    long one = Quantity.of(1).getUnits();
+    // a product of these overflows a long, the quotient by a million does not
+    long[] amounts = {Long.MAX_VALUE / 3, -(Long.MAX_VALUE / 3), Long.MIN_VALUE / 7};
+    long[] quantities = {2_500_000, -2_500_001, 1_000_001};
+    for (RoundingMode rounding : RoundingMode.values()) {
+      if (rounding == RoundingMode.UNNECESSARY) {
+        continue;
+      }
+      for (long amount : amounts) {
+        for (long quantity : quantities) {
+          assertTrue(Math.multiplyHigh(amount, quantity) != (amount * quantity >> 63));
+          assertEquals(rounding + " " + amount + "*" + quantity,
+              expected(amount, quantity, one, rounding),
+              Money.ofUnits(amount).times(Quantity.ofUnits(quantity), rounding).getUnits());
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that ties and the sign of the quotient are found on the BigInteger path, dividing by a
+   * negative price included.
+   */
+  @Test
+  public void testProductBeyondLongRoundsTies() {
+    // 3 * 2^61 * 5 overflows a long, and divided by 2^62 it is 7.5
+    long amount = 3L << 61;
+    long divisor = 1L << 62;
+    assertEquals(8, Money.ofUnits(amount).fraction(5, divisor, RoundingMode.HALF_EVEN)
+        .getUnits());
+    assertEquals(7, Money.ofUnits(amount).fraction(5, divisor, RoundingMode.HALF_DOWN)
+        .getUnits());
+    assertEquals(-8, Money.ofUnits(-amount).fraction(5, divisor, RoundingMode.HALF_UP)
+        .getUnits());
+    assertEquals(-7, Money.ofUnits(-amount).fraction(5, divisor, RoundingMode.HALF_DOWN)
+        .getUnits());
+    // 4.5 rounds to the even neighbour
+    assertEquals(4, Money.ofUnits(amount).fraction(3, divisor, RoundingMode.HALF_EVEN)
+        .getUnits());
+
+    long one = Quantity.of(1).getUnits();
+    for (RoundingMode rounding : new RoundingMode[] {RoundingMode.UP, RoundingMode.CEILING,
+        RoundingMode.FLOOR, RoundingMode.HALF_EVEN}) {
+      assertEquals(rounding.toString(), expected(Long.MAX_VALUE / 3, one, -7_000_001, rounding),
+          Money.ofUnits(Long.MAX_VALUE / 3).divide(Money.ofUnits(-7_000_001), rounding)
+              .getUnits());
+    }
+  }
+
+  /**
+   * Tests that a result too large for a long is reported rather than wrapped.
+   */
+  @Test
+  public void testOverflowingResultThrows() {
+    try {
+      Money.ofUnits(Long.MAX_VALUE).times(Quantity.of(2), RoundingMode.HALF_EVEN);
+      fail("Expected an ArithmeticException");
+    } catch (ArithmeticException e) {
+      // expected
+    }
+    try {
+      Money.ofUnits(Long.MIN_VALUE).fraction(3, 2, RoundingMode.DOWN);
+      fail("Expected an ArithmeticException");
+    } catch (ArithmeticException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests that a float is taken as the decimal it prints as.
+   */
+  @Test
+  public void testQuantityOfFloat() {
+    assertEquals(100_000, Quantity.of(0.1f).getUnits());
+    assertEquals(-2_500_000, Quantity.of(-2.5f).getUnits());
+    assertEquals(1, Quantity.of(1e-6f).getUnits());
+    assertEquals(2, Quantity.of(1.5e-6f).getUnits());
+    assertEquals(Quantity.ZERO, Quantity.of(0f));
+    assertEquals(Quantity.ZERO, Quantity.of(-0f));
+    assertEquals(new BigDecimal("16777216.000000"), Quantity.of(16777216f).toBigDecimal());
+  }
+
+  /**
+   * Tests that floats a quantity cannot hold are rejected: not a number, infinite, too large, or
+   * so small that they would round to no shares at all.
+   */
+  @Test
+  public void testQuantityOfFloatRejectsUnrepresentable() {
+    float[] invalid = {Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY,
+        Float.MAX_VALUE, -Float.MAX_VALUE, 1e13f, 9.223372e18f, 1e-7f, -4e-7f, Float.MIN_VALUE};
+    for (float shares : invalid) {
+      try {
+        Quantity.of(shares);
+        fail("Expected an IllegalArgumentException for " + shares);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  /**
+   * Tests the largest whole number of shares a quantity holds.
+   */
+  @Test
+  public void testQuantityOfLargeFloat() {
+    // 2^43 is a float, and the largest power of two whose millionths fit in a long
+    assertEquals(new BigDecimal("8796093022208.000000"),
+        Quantity.of(8796093022208f).toBigDecimal());
+  }
+}
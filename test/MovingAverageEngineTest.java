@@ -0,0 +1,134 @@
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.analysis.MovingAverageEngine;
+import model.utilities.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test class for the MovingAverageEngine class, comparing its crossovers with the day by day
+ * moving averages the StockService used to compute.
+ */
+public class MovingAverageEngineTest {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 3);
+
+  /**
+   * Builds a year and a half of daily bars from a fixed seed, without weekends, with a few missing
+   * days and a two week gap.
+   *
+   * @return The series.
+   */
+  private static PriceSeries series() {
+    Random random = new Random(42);
+    PriceSeries series = new PriceSeries();
+    long close = 150_0000;
+    for (LocalDate date = FIRST_DAY; date.isBefore(FIRST_DAY.plusDays(540));
+        date = date.plusDays(1)) {
+      boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY
+          || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+      boolean gap = !date.isBefore(LocalDate.of(2022, 8, 8))
+          && date.isBefore(LocalDate.of(2022, 8, 22));
+      if (weekend || gap || random.nextInt(20) == 0) {
+        continue;
+      }
+      close = Math.max(1_0000, close + (random.nextInt(801) - 400) * 100);
+      series.add((int) date.toEpochDay(), close, close + 1_0000, close - 1_0000, close, 1000);
+    }
+    return series;
+  }
+
+  /**
+   * The crossover search of the StockService before the engine: float averages over calendar
+   * days, each recomputed from its window, with a day without a bar counting as zero.
+   */
+  private static List<List<LocalDate>> baseline(PriceSeries series, LocalDate startDate,
+      LocalDate endDate, int shortMovingPeriod, int longMovingPeriod) {
+    List<LocalDate> goldenCrosses = new ArrayList<>();
+    List<LocalDate> deathCrosses = new ArrayList<>();
+    List<LocalDate> movingCrossoverDays = new ArrayList<>();
+    boolean isAbove = false;
+    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+      float shortMovingAverage = average(series, date, shortMovingPeriod);
+      float longMovingAverage = average(series, date, longMovingPeriod);
+      if (shortMovingAverage > longMovingAverage && !isAbove) {
+        goldenCrosses.add(date);
+        movingCrossoverDays.add(date);
+        isAbove = true;
+      } else if (shortMovingAverage < longMovingAverage && isAbove) {
+        deathCrosses.add(date);
+        movingCrossoverDays.add(date);
+        isAbove = false;
+      }
+    }
+    return List.of(goldenCrosses, deathCrosses, movingCrossoverDays);
+  }
+
+  private static float average(PriceSeries series, LocalDate endDate, int period) {
+    float sum = 0;
+    for (LocalDate date = endDate.minusDays(period - 1); !date.isAfter(endDate);
+        date = date.plusDays(1)) {
+      int index = series.indexOf((int) date.toEpochDay());
+      BigDecimal close = index < 0 ? BigDecimal.ZERO : PriceSeries.toBigDecimal(
+          series.closeAt(index));
+      sum += close.floatValue();
+    }
+    return sum / period;
+  }
+
+  private static void assertSameAsBaseline(PriceSeries series, LocalDate startDate,
+      LocalDate endDate, int shortMovingPeriod, int longMovingPeriod) {
+    MovingAverageEngine.Crossovers crossovers = new MovingAverageEngine(series)
+        .findMovingCrossovers(startDate, endDate, shortMovingPeriod, longMovingPeriod);
+    List<List<LocalDate>> expected = baseline(series, startDate, endDate, shortMovingPeriod,
+        longMovingPeriod);
+    assertEquals(expected.get(0), crossovers.getGoldenCrosses());
+    assertEquals(expected.get(1), crossovers.getDeathCrosses());
+    assertEquals(expected.get(2), crossovers.getCrossoverDays());
+  }
+
+  /**
+   * Tests that the engine finds the same crossovers as the old computation over a whole history,
+   * weekends, missing days and the gap included.
+   */
+  @Test
+  public void testMatchesBaselineOverWholeHistory() {
+    PriceSeries series = series();
+    LocalDate endDate = FIRST_DAY.plusDays(539);
+    assertSameAsBaseline(series, FIRST_DAY, endDate, 5, 20);
+    assertSameAsBaseline(series, FIRST_DAY, endDate, 10, 50);
+    assertSameAsBaseline(series, FIRST_DAY, endDate, 3, 7);
+    assertFalse(new MovingAverageEngine(series)
+        .findMovingCrossovers(FIRST_DAY, endDate, 5, 20).getCrossoverDays().isEmpty());
+  }
+
+  /**
+   * Tests that the engine matches the old computation on ranges that start before the history,
+   * end after it, or lie within the gap.
+   */
+  @Test
+  public void testMatchesBaselineAtEdges() {
+    PriceSeries series = series();
+    assertSameAsBaseline(series, FIRST_DAY.minusDays(30), FIRST_DAY.plusDays(60), 5, 20);
+    assertSameAsBaseline(series, LocalDate.of(2022, 8, 1), LocalDate.of(2022, 9, 15), 2, 9);
+    assertSameAsBaseline(series, FIRST_DAY.plusDays(500), FIRST_DAY.plusDays(600), 4, 12);
+  }
+
+  /**
+   * Tests that a symbol without a series has no crossovers, like a series of zeros.
+   */
+  @Test
+  public void testEmptySeries() {
+    assertSameAsBaseline(new PriceSeries(), FIRST_DAY, FIRST_DAY.plusDays(40), 5, 20);
+    assertEquals(List.of(), new MovingAverageEngine(null)
+        .findMovingCrossovers(FIRST_DAY, FIRST_DAY.plusDays(40), 5, 20).getCrossoverDays());
+  }
+}
@@ -3,8 +3,11 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -21,6 +24,8 @@ import model.Portfolio;
 import model.PortfolioInterface;
 import model.Stock;
 import model.Tradable;
+import model.transactions.TranactionInfo;
+import model.transactions.Transaction;
 import model.service.StockService;
 import model.service.StockServiceInterface;
 import view.View;
@@ -1067,10 +1072,9 @@ public class PortfolioControllerTest {
   public void testFindCrossoverDays_ValidInput() {
     LocalDate startDate = LocalDate.of(2024, 2, 1);
     LocalDate endDate = LocalDate.of(2024, 2, 7);
-    // [2024-02-01, 2024-02-02, 2024-02-06]
+    // the close rose above its 30 trading day average only on Feb 6
     List<LocalDate> expectedDates = Arrays.asList(
-        LocalDate.of(2024, 2, 1),
-        LocalDate.of(2024, 2, 5)
+        LocalDate.of(2024, 2, 6)
     );
     Payload result = portfolioController.findCrossoverDays("AAPL", startDate, endDate);
     assertFalse(result.isError());
@@ -1496,6 +1500,67 @@ public class PortfolioControllerTest {
         LocalDate.of(2023, 9, 4), stockWeights);
   }
 
+  /**
+   * Tests that two purchases of a stock on the same date add up instead of the second replacing
+   * the first.
+   */
+  @Test
+  public void testAddStockToPortfolio_SameDateSumsQuantities() {
+    PortfolioControllerInterface controller = new PortfolioController(mockStockService);
+    Portfolio portfolio = (Portfolio) controller.createNewPortfolio("Same Day").getData();
+    LocalDate date = LocalDate.of(2024, 2, 2);
+    controller.addStockToPortfolio(portfolio, "AAPL", 10, date);
+    controller.addStockToPortfolio(portfolio, "AAPL", 5, date);
+    assertEquals(1, portfolio.getStocks().size());
+    assertEquals(15, (int) portfolio.getStockQuantity("AAPL", date));
+    assertEquals(2, portfolio.getStocks().get(0).getTransactions().size());
+    // 15 shares at the close of 154, counted from the day after the purchases
+    assertEquals(0, new BigDecimal("2310").compareTo(
+        portfolio.calculateInvestment(date.plusDays(1))));
+  }
 
-}
+  /**
+   * Tests that a dollar cost averaging portfolio with a purchase on the same date as one of its
+   * investments is saved and loaded with every transaction and its exact fractional quantity.
+   *
+   * @throws IOException if the temporary file cannot be created.
+   */
+  @Test
+  public void testSaveAndLoadPortfolio_KeepsFractionsAndSameDayRows() throws IOException {
+    PortfolioControllerInterface controller = new PortfolioController(mockStockService);
+    Map<String, Float> stockWeights = new HashMap<>();
+    stockWeights.put("AAPL", 100.0f);
+    controller.getPortfolioService().dollarCostAveraging("Dca", new BigDecimal(1000),
+        LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 8), 1, stockWeights);
+    PortfolioInterface saved = controller.getPortfolioService().getPortfolioByName("Dca").get();
+    controller.addStockToPortfolio(saved, "AAPL", 3, LocalDate.of(2024, 2, 2));
+    List<Transaction> savedTransactions = saved.getStocks().get(0).getTransactions();
+    // one purchase on each of the 7 days and the extra one on 2024-02-02
+    assertEquals(8, savedTransactions.size());
+
+    Path file = Files.createTempFile("portfolios", ".csv");
+    try {
+      assertEquals("", controller.savePortfolio(file.toString(), "Normal").getMessage());
+      assertEquals("", controller.loadPortfolio(file.toString(), "Normal").getMessage());
+    } finally {
+      Files.deleteIfExists(file);
+    }
 
+    PortfolioInterface loaded = controller.getPortfolioService().getPortfolioByName("Dca").get();
+    assertTrue(loaded != saved);
+    List<Transaction> loadedTransactions = loaded.getStocks().get(0).getTransactions();
+    assertEquals(savedTransactions.size(), loadedTransactions.size());
+    for (int i = 0; i < savedTransactions.size(); i++) {
+      TranactionInfo expected = savedTransactions.get(i).getInfo();
+      TranactionInfo actual = loadedTransactions.get(i).getInfo();
+      assertEquals(savedTransactions.get(i).getDate(), loadedTransactions.get(i).getDate());
+      assertEquals(expected.getExactQuantity(), actual.getExactQuantity());
+      assertEquals(0, expected.getPrice().compareTo(actual.getPrice()));
+    }
+    LocalDate endDate = LocalDate.of(2024, 2, 8);
+    assertEquals(saved.getStocks().get(0).getExactQuantity(endDate),
+        loaded.getStocks().get(0).getExactQuantity(endDate));
+    assertTrue(loaded.getStocks().get(0).getExactQuantity(endDate).getUnits() % 1_000_000 != 0);
+    assertEquals(saved.calculateInvestment(endDate), loaded.calculateInvestment(endDate));
+  }
+}
@@ -0,0 +1,143 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import controller.Payload;
+import mock.MockApiSource;
+import model.service.StockService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the StockService class, run against a mock source that serves canned data.
+ */
+public class StockServiceTest {
+
+  private static final String HEADER = "timestamp,open,high,low,close,volume\r\n";
+
+  private static final String AAPL_CSV = HEADER
+      + "2024-02-06,186.8600,189.3100,186.7695,189.3000,43490759\r\n"
+      + "2024-02-05,188.1500,189.2500,185.8400,187.6800,69668820\r\n"
+      + "2024-02-02,179.8600,187.3300,179.2500,185.8500,102551680\r\n";
+
+  private MockApiSource source;
+  private StockService stockService;
+
+  /**
+   * Sets up a StockService reading from a mock source.
+   */
+  @Before
+  public void setUp() {
+    source = new MockApiSource();
+    source.put("AAPL", AAPL_CSV);
+    stockService = new StockService(source);
+  }
+
+  /**
+   * Tests that a failed download is reported instead of pricing the stock at zero, and that it is
+   * tried again on the next lookup.
+   */
+  @Test
+  public void testFailedLoadIsReported() {
+    source.failWith(new IOException("network is down"));
+    Payload price = stockService.fetchLastClosePrice("AAPL", LocalDate.of(2024, 2, 6));
+    assertTrue(price.isError());
+    assertTrue(price.getMessage().contains("network is down"));
+
+    source.failWith(null);
+    price = stockService.fetchLastClosePrice("AAPL", LocalDate.of(2024, 2, 6));
+    assertFalse(price.isError());
+    assertEquals(new BigDecimal("189.3000"), price.getData());
+    assertEquals(2, source.getDownloadCount());
+  }
+
+  /**
+   * Tests that a symbol without any bars is downloaded once, and its dates are then known to have
+   * no price.
+   */
+  @Test
+  public void testEmptyHistoryIsNotDownloadedAgain() {
+    source.put("EMPTY", HEADER);
+    assertEquals(BigDecimal.ZERO,
+        stockService.fetchPriceOnDate("EMPTY", LocalDate.of(2024, 2, 6)).getData());
+    assertEquals(BigDecimal.ZERO,
+        stockService.fetchLastClosePrice("EMPTY", LocalDate.of(2023, 5, 1)).getData());
+    assertEquals(1, source.getDownloadCount());
+  }
+
+  /**
+   * Tests that a symbol the source reports as invalid is not downloaded again.
+   */
+  @Test
+  public void testInvalidSymbolIsNotDownloadedAgain() {
+    assertEquals("Invalid stock symbol",
+        stockService.fetchPriceOnDate("NOPE", LocalDate.of(2024, 2, 6)).getMessage());
+    assertEquals("Invalid stock symbol",
+        stockService.fetchLastClosePrice("NOPE", LocalDate.of(2024, 1, 2)).getMessage());
+    assertEquals(1, source.getDownloadCount());
+  }
+
+  /**
+   * Tests that a symbol whose history cannot be loaded is reported as not checked rather than as
+   * invalid, and is checked again on the next try.
+   */
+  @Test
+  public void testFailedValidationIsNotInvalid() {
+    source.failWith(new IOException("network is down"));
+    Payload validation = stockService.validateSymbol("AAPL");
+    assertTrue(validation.isError());
+    assertEquals("Could not load stock data for AAPL: network is down", validation.getMessage());
+
+    source.failWith(null);
+    assertFalse(stockService.validateSymbol("AAPL").isError());
+    assertEquals("Invalid stock symbol: NOPE", stockService.validateSymbol("NOPE").getMessage());
+    assertEquals(3, source.getDownloadCount());
+  }
+
+  /**
+   * Tests that lookups of one symbol made while it is being downloaded wait for that download
+   * instead of starting their own.
+   */
+  @Test
+  public void testConcurrentLoadsAreCoalesced() throws InterruptedException {
+    CountDownLatch gate = new CountDownLatch(1);
+    source.holdDownloads(gate);
+    List<Payload> prices = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread thread = new Thread(() -> {
+        Payload price = stockService.fetchLastClosePrice("AAPL", LocalDate.of(2024, 2, 6));
+        synchronized (prices) {
+          prices.add(price);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    stockService.loadAll(List.of("AAPL"), LocalDate.of(2024, 2, 6));
+
+    // let every thread get to the load before the download finishes
+    while (source.getDownloadCount() == 0 || threads.stream()
+        .anyMatch(thread -> thread.getState() == Thread.State.RUNNABLE)) {
+      Thread.sleep(10);
+    }
+    gate.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(1, source.getDownloadCount());
+    assertEquals(8, prices.size());
+    for (Payload price : prices) {
+      assertEquals(new BigDecimal("189.3000"), price.getData());
+    }
+  }
+}
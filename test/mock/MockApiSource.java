@@ -0,0 +1,98 @@
+package mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.api.ApiSource;
+
+/**
+ * Mock class for an API source that serves canned CSV data and counts the downloads.
+ */
+public class MockApiSource implements ApiSource {
+
+  private final Map<String, String> data = new ConcurrentHashMap<>();
+  private final AtomicInteger downloads = new AtomicInteger();
+  private volatile IOException failure;
+  private volatile CountDownLatch gate;
+
+  /**
+   * Sets the CSV data served for a symbol.
+   *
+   * @param symbol The symbol of the stock.
+   * @param csv    The daily bars in the TIME_SERIES_DAILY CSV format, header included.
+   */
+  public void put(String symbol, String csv) {
+    data.put(symbol, csv);
+  }
+
+  /**
+   * Makes every download fail with the given exception, or succeed again if it is null.
+   *
+   * @param failure The exception to fail the downloads with.
+   */
+  public void failWith(IOException failure) {
+    this.failure = failure;
+  }
+
+  /**
+   * Makes every download wait until the given latch is released, or not wait if it is null.
+   *
+   * @param gate The latch the downloads wait for.
+   */
+  public void holdDownloads(CountDownLatch gate) {
+    this.gate = gate;
+  }
+
+  /**
+   * Getter for the number of downloads started.
+   *
+   * @return The number of streams opened.
+   */
+  public int getDownloadCount() {
+    return downloads.get();
+  }
+
+  @Override
+  public boolean isValidSymbol(String symbol) {
+    return data.containsKey(symbol);
+  }
+
+  @Override
+  public String fetchData(String symbol) {
+    String csv = data.get(symbol);
+    return csv == null ? "Invalid stock symbol: " + symbol : csv;
+  }
+
+  @Override
+  public InputStream openDataStream(String symbol) throws IOException {
+    downloads.incrementAndGet();
+    CountDownLatch held = gate;
+    if (held != null) {
+      try {
+        held.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted", e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    String csv = data.get(symbol);
+    if (csv == null) {
+      throw new IllegalArgumentException("Invalid stock symbol: " + symbol);
+    }
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public InputStream openRecentDataStream(String symbol) throws IOException {
+    return openDataStream(symbol);
+  }
+}
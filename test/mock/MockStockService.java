@@ -3,14 +3,23 @@ package mock;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 import controller.Payload;
 import model.PortfolioInterface;
+import model.analysis.DcaBacktest;
+import model.analysis.DcaBacktestEngine;
+import model.analysis.DcaStrategy;
 import model.service.StockServiceInterface;
+import model.utilities.PriceSeries;
 import model.utilities.StockInfo;
 
 /**
@@ -18,6 +27,7 @@ import model.utilities.StockInfo;
  */
 public  class MockStockService implements StockServiceInterface {
   private static final Map<String, Map<LocalDate, StockInfo>> MOCK_DATA = new HashMap<>();
+  private static final int MAX_LOOKBACK_DAYS = 3;
 
   static {
     // Initialize mock data for AAPL with more diverse scenarios
@@ -116,9 +126,21 @@ public  class MockStockService implements StockServiceInterface {
     return true;
   }
 
+  /**
+   * Mock to fetch the closing price on a date.
+   *
+   * @param symbol of stock.
+   * @param date of purchase.
+   * @return closing price on the date, zero if there is no data on it.
+   */
   @Override
   public Payload fetchPriceOnDate(String symbol, LocalDate date) {
-    return null;
+    Map<LocalDate, StockInfo> stockData = MOCK_DATA.get(symbol);
+    if (stockData == null) {
+      return new Payload(null, "Invalid stock symbol: " + symbol);
+    }
+    StockInfo stockInfo = stockData.get(date);
+    return new Payload(stockInfo == null ? BigDecimal.ZERO : stockInfo.getClose(), "");
   }
 
   /**
@@ -131,7 +153,31 @@ public  class MockStockService implements StockServiceInterface {
    */
   @Override
   public Payload fetchLastClosePrice(String symbol, LocalDate date) {
-    return null;
+    Map<LocalDate, StockInfo> stockData = MOCK_DATA.get(symbol);
+    if (stockData == null) {
+      return new Payload(null, "Invalid stock symbol: " + symbol);
+    }
+    for (int daysBack = 0; daysBack <= MAX_LOOKBACK_DAYS; daysBack++) {
+      StockInfo stockInfo = stockData.get(date.minusDays(daysBack));
+      if (stockInfo != null) {
+        return new Payload(stockInfo.getClose(), "");
+      }
+    }
+    return new Payload(BigDecimal.ZERO, "");
+  }
+
+  @Override
+  public Map<String, List<BigDecimal>> fetchLastClosePrices(Collection<String> symbols,
+      List<LocalDate> dates) {
+    Map<String, List<BigDecimal>> prices = new HashMap<>();
+    for (String symbol : symbols) {
+      List<BigDecimal> closes = new ArrayList<>();
+      for (LocalDate date : dates) {
+        closes.add((BigDecimal) fetchLastClosePrice(symbol, date).getData());
+      }
+      prices.put(symbol, closes);
+    }
+    return prices;
   }
 
   @Override
@@ -146,6 +192,16 @@ public  class MockStockService implements StockServiceInterface {
     return null;
   }
 
+  @Override
+  public SortedMap<LocalDate, BigDecimal> calculatePortfolioValues(PortfolioInterface portfolio,
+      List<LocalDate> dates) {
+    SortedMap<LocalDate, BigDecimal> values = new TreeMap<>();
+    for (LocalDate date : dates) {
+      values.put(date, portfolio.calculateValue(this, date));
+    }
+    return values;
+  }
+
   @Override
   public void loadCache(String filepath) {
     //No implementation in Mock.
@@ -156,12 +212,55 @@ public  class MockStockService implements StockServiceInterface {
     //No implementation in Mock.
   }
 
+  @Override
+  public Payload validateSymbol(String symbol) {
+    if (!MOCK_DATA.containsKey(symbol)) {
+      return new Payload(null, "Invalid stock symbol: " + symbol);
+    }
+    return new Payload(true, "");
+  }
+
+  @Override
+  public CompletableFuture<Void> loadAll(Collection<String> symbols, LocalDate date) {
+    return CompletableFuture.completedFuture(null);
+  }
+
   @Override
   public List<LocalDate> findCrossoverDays(
           String symbol, LocalDate startDate, LocalDate endDate) {
     return null;
   }
 
+  @Override
+  public List<LocalDate> findCrossoverDays(
+          String symbol, LocalDate startDate, LocalDate endDate, int window) {
+    return null;
+  }
+
+  @Override
+  public Map<String, List<LocalDate>> findCrossoverDays(
+          Collection<String> symbols, LocalDate startDate, LocalDate endDate, int window) {
+    return null;
+  }
+
+  /**
+   * Mock to compare dollar cost averaging strategies, backtested on the mock data.
+   *
+   * @param strategies The strategies to backtest.
+   * @return The backtests, the highest return first, then the failed ones.
+   */
+  @Override
+  public List<DcaBacktest> compareDcaStrategies(Collection<DcaStrategy> strategies) {
+    Map<String, PriceSeries> seriesBySymbol = new HashMap<>();
+    MOCK_DATA.forEach((symbol, stockData) -> {
+      PriceSeries series = new PriceSeries();
+      stockData.forEach(series::add);
+      seriesBySymbol.put(symbol, series);
+    });
+    return new DcaBacktestEngine(seriesBySymbol, MAX_LOOKBACK_DAYS)
+        .compare(strategies, ForkJoinPool.commonPool());
+  }
+
   @Override
   public Map<String, Object> findMovingCrossoverDays(
           String symbol, LocalDate startDate, LocalDate endDate,